@@ -0,0 +1,19 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "elastic-config")
+public class ElasticConfigData {
+    private String indexName;
+    private String connectionUrl;
+    private Integer connectTimeoutMs;
+    private Long socketTimeoutMs;
+    private Integer bulkMaxDocuments;
+    private Long bulkMaxBytes;
+    private Long bulkFlushIntervalMs;
+    private Long bulkRetryBackoffMs;
+}
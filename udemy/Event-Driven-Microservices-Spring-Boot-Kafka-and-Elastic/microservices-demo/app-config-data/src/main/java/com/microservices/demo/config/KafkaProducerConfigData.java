@@ -10,6 +10,7 @@ import org.springframework.context.annotation.Configuration;
 public class KafkaProducerConfigData {
     private String keySerializerClass;
     private String valueSerializerClass;
+    private Boolean reusableAvroSerializerEnabled;
     private String compressionType;
     private String acks;
     private Integer batchSize;
@@ -17,4 +18,40 @@ public class KafkaProducerConfigData {
     private Integer lingerMs;
     private Integer requestTimeoutMs;
     private Integer retryCount;
+    private Boolean enableIdempotence;
+    private Boolean transactionsEnabled;
+    private String transactionalIdPrefix;
+    private Boolean adaptiveTuningEnabled;
+    private Long adaptiveTuningIntervalMs;
+    private Integer adaptiveMinBatchSize;
+    private Integer adaptiveMaxBatchSize;
+    private Integer adaptiveMinLingerMs;
+    private Integer adaptiveMaxLingerMs;
+    private Long bufferMonitorIntervalMs;
+    private Boolean spillEnabled;
+    private String spillDirectory;
+    private Integer spillSegmentSizeBytes;
+    private Integer spillMaxSegments;
+    private Double spillBufferUtilisationThreshold;
+    private Integer spillReplayBatchSize;
+    private Long spillReplayIntervalMs;
+    private Boolean skewAwarePartitionerEnabled;
+    private Double heavyHitterThreshold;
+    private Integer heavyHitterSpreadPartitions;
+    private Integer heavyHitterSketchWidth;
+    private Integer heavyHitterSketchDepth;
+    private Long heavyHitterDecayRecords;
+    private Boolean circuitBreakerEnabled;
+    private Double circuitBreakerFailureRateThreshold;
+    private Integer circuitBreakerMinimumRecords;
+    private Long circuitBreakerWindowMs;
+    private Integer circuitBreakerWindowBuckets;
+    private Long circuitBreakerOpenMs;
+    private Integer circuitBreakerHalfOpenRecords;
+    private Boolean rateLimiterEnabled;
+    private Integer rateLimiterRecordsPerSecond;
+    private Integer rateLimiterBurstRecords;
+    private String guardFallback;
+    private Integer producerPoolSize;
+    private Integer reactiveMaxInFlight;
 }
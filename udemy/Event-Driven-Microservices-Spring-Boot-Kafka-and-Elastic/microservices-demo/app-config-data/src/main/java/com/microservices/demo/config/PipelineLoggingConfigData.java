@@ -0,0 +1,15 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pipeline-logging-config")
+public class PipelineLoggingConfigData {
+    private Long summaryIntervalMs;
+    private Map<String, Integer> sampleRates;
+}
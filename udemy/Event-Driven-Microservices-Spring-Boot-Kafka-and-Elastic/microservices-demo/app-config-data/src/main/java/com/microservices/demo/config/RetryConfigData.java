@@ -14,4 +14,6 @@ public class RetryConfigData {
     private Double multiplier;
     private Integer maxAttempts;
     private Long sleepTimeMs;
+    private Long readinessTimeoutMs;
+    private Double readinessJitter;
 }
@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Configuration
@@ -16,4 +17,40 @@ public class TwitterToKafkaServiceConfigData {
     private Long mockSleepMs;
     private Integer mockMinTweetLength;
     private Integer mockMaxTweetLength;
+    private String mockStreamMode;
+    private Integer loadGeneratorThreads;
+    private Long loadGeneratorTargetRate;
+    private Long loadGeneratorDurationSeconds;
+    private Integer loadGeneratorCorpusSize;
+    private Integer loadGeneratorUserCount;
+    private Double loadGeneratorZipfExponent;
+    private Integer handOffQueueCapacity;
+    private Integer handOffDrainSize;
+    private Integer handOffSenderThreads;
+    private Integer handOffMaxInFlightBatches;
+    private String handOffOverflowPolicy;
+    private Boolean enableAvroModelPooling;
+    private Integer avroModelPoolSize;
+    private Boolean dedupEnabled;
+    private Long dedupWindowSeconds;
+    private Long dedupExpectedInsertions;
+    private Double dedupFalsePositiveRate;
+    private Boolean keywordMatchWholeWords;
+    private Boolean keywordFilterEnabled;
+    private Map<String, String> keywordTopics;
+    private Boolean overlapReadinessWithStream;
+    private Boolean exitAfterFirstRecord;
+    private Boolean backpressureEnabled;
+    private Double backpressureHighWatermark;
+    private Double backpressureLowWatermark;
+    private Long backpressureCheckIntervalMs;
+    private String pipelineMode;
+    private Integer reactiveSourceBufferSize;
+    private Long shutdownTimeoutMs;
+    private Boolean captureEnabled;
+    private String captureDirectory;
+    private Integer captureSegmentSizeBytes;
+    private Integer captureMaxSegments;
+    private Double replaySpeed;
+    private Long replayMaxGapMs;
 }
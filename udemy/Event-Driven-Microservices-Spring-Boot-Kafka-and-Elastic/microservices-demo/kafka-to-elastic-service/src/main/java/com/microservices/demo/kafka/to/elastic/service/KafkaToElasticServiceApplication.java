@@ -0,0 +1,20 @@
+package com.microservices.demo.kafka.to.elastic.service;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
+
+@SpringBootApplication
+@ComponentScan(basePackages = {
+        "com.microservices.demo.kafka.to.elastic.service",
+        "com.microservices.demo.config",
+        "com.microservices.demo.common.config",
+        "com.microservices.demo.kafka.admin",
+        "com.microservices.demo.kafka.consumer"
+})
+public class KafkaToElasticServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(KafkaToElasticServiceApplication.class, args);
+    }
+}
@@ -0,0 +1,17 @@
+package com.microservices.demo.kafka.to.elastic.service.consumer;
+
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+public interface KafkaConsumer<V extends SpecificRecordBase> {
+
+    /**
+     * Receives one polled batch. The lists are aligned by index, the acknowledgment commits the offsets of the whole
+     * batch and the consumer is the one that polled it, so it may only be used on the calling thread.
+     */
+    void receive(List<V> messages, List<String> topics, List<Integer> partitions, List<Long> offsets,
+                 Acknowledgment acknowledgment, Consumer<?, ?> consumer);
+}
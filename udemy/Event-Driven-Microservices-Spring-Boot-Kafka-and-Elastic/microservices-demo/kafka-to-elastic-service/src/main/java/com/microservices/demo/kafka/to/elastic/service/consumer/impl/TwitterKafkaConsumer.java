@@ -0,0 +1,191 @@
+package com.microservices.demo.kafka.to.elastic.service.consumer.impl;
+
+import com.microservices.demo.config.ElasticConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaAdminClient;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.to.elastic.service.consumer.KafkaConsumer;
+import com.microservices.demo.kafka.to.elastic.service.elastic.BulkRequest;
+import com.microservices.demo.kafka.to.elastic.service.elastic.ElasticIndexClient;
+import com.microservices.demo.kafka.to.elastic.service.exception.KafkaToElasticServiceException;
+import com.microservices.demo.kafka.to.elastic.service.transformer.AvroToElasticModelTransformer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Collects polled batches into bulk requests and acknowledges them only once elastic indexed them.
+ * <p>
+ * Every consumer thread owns its partitions and keeps its own pending bulk, which is sent when it reaches
+ * bulk-max-documents or bulk-max-bytes, or is older than bulk-flush-interval-ms. Limits are checked after each polled
+ * batch, so a bulk can exceed them by up to max-poll-records. Pending bulks are also sent when the container reports
+ * the consumer idle and before partitions are revoked. If a bulk fails the consumer seeks back to the first pending
+ * offset of each partition, and the records are received and indexed again after bulk-retry-backoff-ms.
+ */
+@Service
+public class TwitterKafkaConsumer implements KafkaConsumer<TwitterAvroModel>, ConsumerAwareRebalanceListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaConsumer.class);
+
+    private static final String LISTENER_ID = "twitterTopicListener";
+
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+
+    private final KafkaAdminClient kafkaAdminClient;
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final ElasticConfigData elasticConfigData;
+
+    private final ElasticIndexClient elasticIndexClient;
+
+    private final AvroToElasticModelTransformer avroToElasticModelTransformer;
+
+    private final ThreadLocal<PendingBulk> pendingBulks = new ThreadLocal<>();
+
+    public TwitterKafkaConsumer(KafkaListenerEndpointRegistry listenerEndpointRegistry,
+                                KafkaAdminClient adminClient,
+                                KafkaConfigData configData,
+                                ElasticConfigData elasticConfigData,
+                                ElasticIndexClient indexClient,
+                                AvroToElasticModelTransformer transformer) {
+        this.kafkaListenerEndpointRegistry = listenerEndpointRegistry;
+        this.kafkaAdminClient = adminClient;
+        this.kafkaConfigData = configData;
+        this.elasticConfigData = elasticConfigData;
+        this.elasticIndexClient = indexClient;
+        this.avroToElasticModelTransformer = transformer;
+    }
+
+    @EventListener
+    public void onAppStarted(ApplicationStartedEvent event) {
+        kafkaAdminClient.checkTopicsCreated();
+        LOG.info("Topic(s) {} are ready, starting listener", kafkaConfigData.getTopicNamesToCreate());
+        MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(LISTENER_ID);
+        Objects.requireNonNull(container, "No listener container " + LISTENER_ID).start();
+    }
+
+    @Override
+    @KafkaListener(id = LISTENER_ID, topics = "${kafka-config.topic-name}")
+    public void receive(@Payload List<TwitterAvroModel> messages,
+                        @Header(KafkaHeaders.RECEIVED_TOPIC) List<String> topics,
+                        @Header(KafkaHeaders.RECEIVED_PARTITION_ID) List<Integer> partitions,
+                        @Header(KafkaHeaders.OFFSET) List<Long> offsets,
+                        Acknowledgment acknowledgment,
+                        Consumer<?, ?> consumer) {
+        LOG.debug("{} messages received from partitions {} with offsets {}, thread id {}", messages.size(),
+                partitions, offsets, Thread.currentThread().getId());
+        PendingBulk pendingBulk = pendingBulks.get();
+        if (pendingBulk == null) {
+            pendingBulk = new PendingBulk(elasticIndexClient.newBulkRequest());
+            pendingBulks.set(pendingBulk);
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            pendingBulk.firstOffsets.putIfAbsent(new TopicPartition(topics.get(i), partitions.get(i)),
+                    offsets.get(i));
+            if (messages.get(i) != null) {
+                pendingBulk.bulkRequest.add(avroToElasticModelTransformer.getElasticModel(messages.get(i)));
+            }
+        }
+        pendingBulk.acknowledgments.add(acknowledgment);
+        if (isFlushDue(pendingBulk)) {
+            flush(consumer, true);
+        }
+    }
+
+    /**
+     * Idle events are published on the consumer thread, so only the bulk of the idle consumer is sent.
+     */
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        flush(event.getConsumer(), true);
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        flush(consumer, false);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        PendingBulk pendingBulk = pendingBulks.get();
+        if (pendingBulk != null) {
+            LOG.warn("Partitions {} lost, dropping pending bulk of {} document(s)", partitions,
+                    pendingBulk.bulkRequest.size());
+            pendingBulks.remove();
+        }
+    }
+
+    private boolean isFlushDue(PendingBulk pendingBulk) {
+        return pendingBulk.bulkRequest.size() >= elasticConfigData.getBulkMaxDocuments() ||
+                pendingBulk.bulkRequest.sizeInBytes() >= elasticConfigData.getBulkMaxBytes() ||
+                System.currentTimeMillis() - pendingBulk.createdAtMs >= elasticConfigData.getBulkFlushIntervalMs();
+    }
+
+    private void flush(Consumer<?, ?> consumer, boolean seekOnFailure) {
+        PendingBulk pendingBulk = pendingBulks.get();
+        if (pendingBulk == null) {
+            return;
+        }
+        pendingBulks.remove();
+        try {
+            List<String> indexedIds = elasticIndexClient.save(pendingBulk.bulkRequest);
+            pendingBulk.acknowledgments.forEach(Acknowledgment::acknowledge);
+            LOG.info("{} of {} document(s) indexed to elastic, offsets of {} batch(es) acknowledged",
+                    indexedIds.size(), pendingBulk.bulkRequest.size(), pendingBulk.acknowledgments.size());
+        } catch (KafkaToElasticServiceException e) {
+            if (!seekOnFailure) {
+                LOG.error("Bulk of {} document(s) failed, leaving it to the next owner of the partitions",
+                        pendingBulk.bulkRequest.size(), e);
+                return;
+            }
+            LOG.error("Bulk of {} document(s) failed, receiving them again in {} ms",
+                    pendingBulk.bulkRequest.size(), elasticConfigData.getBulkRetryBackoffMs(), e);
+            sleep(elasticConfigData.getBulkRetryBackoffMs());
+            pendingBulk.firstOffsets.forEach(consumer::seek);
+        }
+    }
+
+    private void sleep(long sleepTimeMs) {
+        try {
+            Thread.sleep(sleepTimeMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PendingBulk {
+
+        private final BulkRequest bulkRequest;
+
+        private final List<Acknowledgment> acknowledgments = new ArrayList<>();
+
+        private final Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+
+        private final long createdAtMs = System.currentTimeMillis();
+
+        private PendingBulk(BulkRequest bulkRequest) {
+            this.bulkRequest = bulkRequest;
+        }
+    }
+}
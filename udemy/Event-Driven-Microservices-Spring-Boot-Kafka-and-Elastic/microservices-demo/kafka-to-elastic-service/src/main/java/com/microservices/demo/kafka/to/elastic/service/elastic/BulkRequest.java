@@ -0,0 +1,67 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.demo.kafka.to.elastic.service.exception.KafkaToElasticServiceException;
+import com.microservices.demo.kafka.to.elastic.service.model.TwitterIndexModel;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Newline delimited body of an elastic bulk request with one index action per document. Documents are serialized
+ * when they are added, so the size of the request is known before it is sent.
+ */
+public class BulkRequest {
+
+    private final ObjectMapper objectMapper;
+
+    private final String indexName;
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    private final List<String> ids = new ArrayList<>();
+
+    public BulkRequest(ObjectMapper objectMapper, String indexName) {
+        this.objectMapper = objectMapper;
+        this.indexName = indexName;
+    }
+
+    public void add(TwitterIndexModel document) {
+        try {
+            byte[] action = objectMapper.writeValueAsBytes(
+                    Map.of("index", Map.of("_index", indexName, "_id", document.getId())));
+            byte[] source = objectMapper.writeValueAsBytes(document);
+            body.writeBytes(action);
+            body.write('\n');
+            body.writeBytes(source);
+            body.write('\n');
+            ids.add(document.getId());
+        } catch (JsonProcessingException e) {
+            throw new KafkaToElasticServiceException("Could not serialize document " + document.getId(), e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public long sizeInBytes() {
+        return body.size();
+    }
+
+    public List<String> getIds() {
+        return Collections.unmodifiableList(ids);
+    }
+
+    public byte[] getBody() {
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,15 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic;
+
+import java.util.List;
+
+public interface ElasticIndexClient {
+
+    BulkRequest newBulkRequest();
+
+    /**
+     * Sends the bulk request and returns the ids of the indexed documents. Documents elastic rejects with a
+     * non-retriable status are logged and left out of the result. Throws if the request fails or any document has to
+     * be retried, in which case the whole request can be sent again as documents are indexed by id.
+     */
+    List<String> save(BulkRequest bulkRequest);
+}
@@ -0,0 +1,135 @@
+package com.microservices.demo.kafka.to.elastic.service.elastic.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.demo.config.ElasticConfigData;
+import com.microservices.demo.kafka.to.elastic.service.elastic.BulkRequest;
+import com.microservices.demo.kafka.to.elastic.service.elastic.ElasticIndexClient;
+import com.microservices.demo.kafka.to.elastic.service.exception.KafkaToElasticServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes documents through the elastic _bulk endpoint as newline delimited JSON.
+ */
+@Component
+public class ElasticBulkIndexClient implements ElasticIndexClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElasticBulkIndexClient.class);
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ElasticConfigData elasticConfigData;
+
+    private final ObjectMapper objectMapper;
+
+    private final WebClient webClient;
+
+    private final Timer bulkRequestTimer;
+
+    private final Counter indexedCounter;
+
+    private final Counter rejectedCounter;
+
+    public ElasticBulkIndexClient(ElasticConfigData configData,
+                                  ObjectMapper objectMapper,
+                                  WebClient.Builder webClientBuilder,
+                                  MeterRegistry meterRegistry) {
+        this.elasticConfigData = configData;
+        this.objectMapper = objectMapper;
+        HttpClient httpClient = HttpClient.create().tcpConfiguration(tcpClient ->
+                tcpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, configData.getConnectTimeoutMs()));
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(configData.getConnectionUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.bulkRequestTimer = Timer.builder("twitter.elastic.bulk.request")
+                .description("Time to send a bulk request to elastic and receive its response")
+                .register(meterRegistry);
+        this.indexedCounter = Counter.builder("twitter.elastic.bulk.documents")
+                .description("Documents sent to elastic in bulk requests")
+                .tag("result", "indexed")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("twitter.elastic.bulk.documents")
+                .description("Documents sent to elastic in bulk requests")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public BulkRequest newBulkRequest() {
+        return new BulkRequest(objectMapper, elasticConfigData.getIndexName());
+    }
+
+    @Override
+    public List<String> save(BulkRequest bulkRequest) {
+        if (bulkRequest.isEmpty()) {
+            return List.of();
+        }
+        JsonNode response;
+        long start = System.nanoTime();
+        try {
+            response = webClient.post()
+                    .uri("/_bulk")
+                    .contentType(NDJSON)
+                    .bodyValue(bulkRequest.getBody())
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block(Duration.ofMillis(elasticConfigData.getSocketTimeoutMs()));
+        } catch (RuntimeException e) {
+            throw new KafkaToElasticServiceException("Bulk request of " + bulkRequest.size() +
+                    " document(s) failed!", e);
+        } finally {
+            bulkRequestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (response == null) {
+            throw new KafkaToElasticServiceException("Bulk request of " + bulkRequest.size() +
+                    " document(s) returned no response!");
+        }
+        return getIndexedIds(bulkRequest, response);
+    }
+
+    private List<String> getIndexedIds(BulkRequest bulkRequest, JsonNode response) {
+        if (!response.path("errors").asBoolean(false)) {
+            indexedCounter.increment(bulkRequest.size());
+            return bulkRequest.getIds();
+        }
+        List<String> indexedIds = new ArrayList<>(bulkRequest.size());
+        int retriable = 0;
+        int rejected = 0;
+        for (JsonNode item : response.path("items")) {
+            JsonNode result = item.path("index");
+            int status = result.path("status").asInt();
+            String id = result.path("_id").asText();
+            if (status >= 200 && status < 300) {
+                indexedIds.add(id);
+            } else if (status == 429 || status >= 500) {
+                retriable++;
+            } else {
+                rejected++;
+                LOG.error("Document {} rejected by elastic with status {}: {}", id, status, result.path("error"));
+            }
+        }
+        if (retriable > 0) {
+            throw new KafkaToElasticServiceException(retriable + " of " + bulkRequest.size() +
+                    " document(s) in bulk request have to be retried!");
+        }
+        indexedCounter.increment(indexedIds.size());
+        rejectedCounter.increment(rejected);
+        return indexedIds;
+    }
+}
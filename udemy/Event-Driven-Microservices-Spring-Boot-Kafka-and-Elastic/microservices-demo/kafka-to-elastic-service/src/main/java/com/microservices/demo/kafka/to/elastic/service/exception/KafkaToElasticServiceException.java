@@ -0,0 +1,16 @@
+package com.microservices.demo.kafka.to.elastic.service.exception;
+
+public class KafkaToElasticServiceException extends RuntimeException {
+
+    public KafkaToElasticServiceException() {
+        super();
+    }
+
+    public KafkaToElasticServiceException(String message) {
+        super(message);
+    }
+
+    public KafkaToElasticServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,52 @@
+package com.microservices.demo.kafka.to.elastic.service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Tweet document as written to the elastic index. The document id is the tweet id, so indexing the same tweet twice
+ * overwrites the first document instead of duplicating it.
+ */
+public class TwitterIndexModel {
+
+    private final String id;
+
+    private final Long userId;
+
+    private final String text;
+
+    private final ZonedDateTime createdAt;
+
+    private final List<String> keywords;
+
+    public TwitterIndexModel(String id, Long userId, String text, ZonedDateTime createdAt, List<String> keywords) {
+        this.id = id;
+        this.userId = userId;
+        this.text = text;
+        this.createdAt = createdAt;
+        this.keywords = keywords;
+    }
+
+    @JsonIgnore
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public ZonedDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+}
@@ -0,0 +1,27 @@
+package com.microservices.demo.kafka.to.elastic.service.transformer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.to.elastic.service.model.TwitterIndexModel;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+
+@Component
+public class AvroToElasticModelTransformer {
+
+    public TwitterIndexModel getElasticModel(TwitterAvroModel avroModel) {
+        return new TwitterIndexModel(
+                String.valueOf(avroModel.getId()),
+                avroModel.getUserId(),
+                avroModel.getText(),
+                getCreatedAt(avroModel.getCreatedAt()),
+                new ArrayList<>(avroModel.getKeywords()));
+    }
+
+    private ZonedDateTime getCreatedAt(Long createdAt) {
+        return createdAt == null ? null : ZonedDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,182 @@
+package com.microservices.demo.kafka.to.elastic.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "kafka-config.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "kafka-config.schema-registry-url-key=schema.registry.url",
+        "kafka-config.schema-registry-url=" + KafkaToElasticServiceApplicationTests.SCHEMA_REGISTRY_URL,
+        "kafka-config.topic-name=" + KafkaToElasticServiceApplicationTests.TOPIC_NAME,
+        "kafka-config.topic-names-to-create=" + KafkaToElasticServiceApplicationTests.TOPIC_NAME,
+        "retry-config.initial-interval-ms=100",
+        "retry-config.max-interval-ms=1000",
+        "retry-config.multiplier=2.0",
+        "retry-config.max-attempts=3",
+        "retry-config.sleep-time-ms=100",
+        "kafka-consumer-config.consumer-group-id=" + KafkaToElasticServiceApplicationTests.GROUP_ID,
+        "kafka-consumer-config.idle-event-interval-ms=200",
+        "elastic-config.bulk-max-documents=10",
+        "elastic-config.bulk-flush-interval-ms=200",
+        "elastic-config.bulk-retry-backoff-ms=100"
+})
+@EmbeddedKafka(partitions = 3, topics = KafkaToElasticServiceApplicationTests.TOPIC_NAME)
+public class KafkaToElasticServiceApplicationTests {
+
+    static final String TOPIC_NAME = "twitter-topic";
+
+    static final String GROUP_ID = "kafka-to-elastic-test";
+
+    static final String SCHEMA_REGISTRY_URL = "mock://kafka-to-elastic-test";
+
+    private static final int TWEET_COUNT = 25;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Set<String> INDEXED_IDS = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicInteger BULK_REQUESTS = new AtomicInteger();
+
+    private static HttpServer bulkEndpoint;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+    @BeforeAll
+    public static void startBulkEndpoint() throws IOException {
+        bulkEndpoint = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        bulkEndpoint.createContext("/_bulk", KafkaToElasticServiceApplicationTests::handleBulk);
+        bulkEndpoint.start();
+    }
+
+    @AfterAll
+    public static void stopBulkEndpoint() {
+        bulkEndpoint.stop(0);
+    }
+
+    @DynamicPropertySource
+    static void elasticProperties(DynamicPropertyRegistry registry) {
+        registry.add("elastic-config.connection-url",
+                () -> "http://localhost:" + bulkEndpoint.getAddress().getPort());
+    }
+
+    @Test
+    public void indexesTweetsAndCommitsOffsetsAfterBulkSuccess() throws Exception {
+        try (KafkaProducer<Long, TwitterAvroModel> producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafkaBroker.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, LongSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class,
+                "schema.registry.url", SCHEMA_REGISTRY_URL))) {
+            for (long id = 1; id <= TWEET_COUNT; id++) {
+                producer.send(new ProducerRecord<>(TOPIC_NAME, id, TwitterAvroModel.newBuilder()
+                        .setId(id)
+                        .setUserId(id)
+                        .setText("tweet " + id)
+                        .setCreatedAt(System.currentTimeMillis())
+                        .setKeywords(List.of("kafka"))
+                        .build()));
+            }
+        }
+
+        awaitTrue(() -> INDEXED_IDS.size() == TWEET_COUNT);
+        assertThat(INDEXED_IDS).hasSize(TWEET_COUNT);
+        assertThat(BULK_REQUESTS.get()).isGreaterThan(1);
+
+        try (AdminClient adminClient = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG,
+                embeddedKafkaBroker.getBrokersAsString()))) {
+            awaitTrue(() -> committedOffsets(adminClient) == TWEET_COUNT);
+            assertThat(committedOffsets(adminClient)).isEqualTo(TWEET_COUNT);
+        }
+    }
+
+    /**
+     * Fails the first bulk request with 503, so that the consumer has to receive its records again, and indexes
+     * every later request.
+     */
+    private static void handleBulk(HttpExchange exchange) throws IOException {
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(),
+                StandardCharsets.UTF_8))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+        if (BULK_REQUESTS.getAndIncrement() == 0) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        ObjectNode response = OBJECT_MAPPER.createObjectNode().put("took", 1).put("errors", false);
+        ArrayNode items = response.putArray("items");
+        for (int i = 0; i < lines.size(); i += 2) {
+            JsonNode action = OBJECT_MAPPER.readTree(lines.get(i)).path("index");
+            INDEXED_IDS.add(action.path("_id").asText());
+            items.addObject().putObject("index")
+                    .put("_index", action.path("_index").asText())
+                    .put("_id", action.path("_id").asText())
+                    .put("status", 201);
+        }
+        byte[] body = OBJECT_MAPPER.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static long committedOffsets(AdminClient adminClient) {
+        try {
+            return adminClient.listConsumerGroupOffsets(GROUP_ID).partitionsToOffsetAndMetadata().get()
+                    .values().stream()
+                    .mapToLong(OffsetAndMetadata::offset)
+                    .sum();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+}
@@ -6,20 +6,20 @@ import com.microservices.demo.kafka.admin.exception.KafkaClientException;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.CreateTopicsResult;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.apache.kafka.clients.admin.TopicListing;
+import org.apache.kafka.common.KafkaFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
 import org.springframework.retry.RetryContext;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
-import java.util.Collection;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 @Component
@@ -61,67 +61,89 @@ public class KafkaAdminClient {
         checkTopicsCreated();
     }
 
+    /**
+     * Blocks until all topics to create can be described, or throws once the readiness timeout is reached.
+     */
     public void checkTopicsCreated() {
-        Collection<TopicListing> topics = getTopics();
-        int retryCount = 1;
-        Integer maxRetry = retryConfigData.getMaxAttempts();
-        int multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTimeMs = retryConfigData.getSleepTimeMs();
-        for (String topic : kafkaConfigData.getTopicNamesToCreate()) {
-            while (!isTopicCreated(topics, topic)) {
-                checkMaxRetry(retryCount++, maxRetry);
-                sleep(sleepTimeMs);
-                sleepTimeMs *= multiplier;
-                topics = getTopics();
-            }
-        }
+        awaitReadiness(checkTopicsCreatedAsync());
     }
 
+    /**
+     * Blocks until the schema registry answers with 2xx, or throws once the readiness timeout is reached.
+     */
     public void checkSchemaRegistry() {
-        int retryCount = 1;
-        Integer maxRetry = retryConfigData.getMaxAttempts();
-        int multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTimeMs = retryConfigData.getSleepTimeMs();
-        while (!getSchemaRegistryStatus().is2xxSuccessful()) {
-            checkMaxRetry(retryCount++, maxRetry);
-            sleep(sleepTimeMs);
-            sleepTimeMs *= multiplier;
-        }
+        awaitReadiness(checkSchemaRegistryAsync());
     }
 
-    private HttpStatus getSchemaRegistryStatus() {
-        try {
-            return webClient
-                    .method(HttpMethod.GET)
-                    .uri(kafkaConfigData.getSchemaRegistryUrl())
-                    .exchange()
-                    .map(ClientResponse::statusCode)
-                    .block();
-        } catch (Exception e) {
-            return HttpStatus.SERVICE_UNAVAILABLE;
-        }
+    /**
+     * Requests topic creation and, concurrently, probes the schema registry. The returned Mono completes once all
+     * topics can be described and the registry answers with 2xx, or fails with {@link KafkaClientException} when
+     * retry-config.readiness-timeout-ms passes first. Each check retries on its own with jittered exponential
+     * backoff, at most retry-config.max-attempts times.
+     */
+    public Mono<Void> createTopicsAndCheckReadiness() {
+        Mono<Void> topicsReady = Mono.fromCallable(() -> retryTemplate.execute(this::doCreateTopics))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(t -> new KafkaClientException(
+                        "Reached max number of retry for creating kafka topic(s)!", t))
+                .doOnNext(createTopicsResult -> LOG.info("Requested creation of kafka topic(s) {}",
+                        createTopicsResult.values().keySet()))
+                .then(checkTopicsCreatedAsync());
+        return withReadinessTimeout(Mono.when(topicsReady, checkSchemaRegistryAsync()));
+    }
+
+    public Mono<Void> checkTopicsCreatedAsync() {
+        List<String> topicNames = kafkaConfigData.getTopicNamesToCreate().stream()
+                .map(String::trim)
+                .collect(Collectors.toList());
+        return Mono.defer(() -> toMono(adminClient.describeTopics(topicNames).all()))
+                .doOnNext(descriptions -> LOG.info("Kafka topic(s) {} are created", descriptions.keySet()))
+                .retryWhen(readinessRetry("Kafka topic(s) " + topicNames))
+                .then();
     }
 
+    public Mono<Void> checkSchemaRegistryAsync() {
+        return Mono.defer(() -> webClient
+                .method(HttpMethod.GET)
+                .uri(kafkaConfigData.getSchemaRegistryUrl())
+                .exchange()
+                .flatMap(response -> response.releaseBody().thenReturn(response.statusCode())))
+                .flatMap(status -> status.is2xxSuccessful() ? Mono.just(status) :
+                        Mono.error(new KafkaClientException("Schema registry responded with " + status)))
+                .doOnNext(status -> LOG.info("Schema registry is ready"))
+                .retryWhen(readinessRetry("Schema registry"))
+                .then();
+    }
 
-    private void sleep(Long sleepTimeMs) {
-        try {
-            Thread.sleep(sleepTimeMs);
-        } catch (InterruptedException e) {
-            throw new KafkaClientException("Error while sleeping for waiting new created topics!!");
-        }
+    private void awaitReadiness(Mono<Void> readiness) {
+        withReadinessTimeout(readiness).block();
     }
 
-    private void checkMaxRetry(int retry, Integer maxRetry) {
-        if (retry > maxRetry) {
-            throw new KafkaClientException("Reached max number of retry for reading kafka topic(s)!");
-        }
+    private Mono<Void> withReadinessTimeout(Mono<Void> readiness) {
+        Duration timeout = Duration.ofMillis(retryConfigData.getReadinessTimeoutMs());
+        return readiness.timeout(timeout, Mono.error(() -> new KafkaClientException(
+                "Kafka topic(s) or schema registry not ready within " + timeout.toMillis() + " ms!")));
     }
 
-    private boolean isTopicCreated(Collection<TopicListing> topics, String topicName) {
-        if (topics == null) {
-            return false;
-        }
-        return topics.stream().anyMatch(topic -> topic.name().equals(topicName));
+    private Retry readinessRetry(String resource) {
+        return Retry.backoff(retryConfigData.getMaxAttempts(), Duration.ofMillis(retryConfigData.getSleepTimeMs()))
+                .maxBackoff(Duration.ofMillis(retryConfigData.getMaxIntervalMs()))
+                .jitter(retryConfigData.getReadinessJitter())
+                .doBeforeRetry(signal -> LOG.info("{} not ready yet, attempt {}: {}", resource,
+                        signal.totalRetries() + 1, signal.failure().getMessage()))
+                .onRetryExhaustedThrow((retrySpec, signal) -> new KafkaClientException(
+                        resource + " not ready after " + retryConfigData.getMaxAttempts() + " retries!",
+                        signal.failure()));
+    }
+
+    private static <T> Mono<T> toMono(KafkaFuture<T> kafkaFuture) {
+        return Mono.create(sink -> kafkaFuture.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                sink.error(throwable);
+            } else {
+                sink.success(value);
+            }
+        }));
     }
 
     private CreateTopicsResult doCreateTopics(RetryContext retryContext) {
@@ -135,25 +157,4 @@ public class KafkaAdminClient {
         return adminClient.createTopics(kafkaTopics);
     }
 
-    private Collection<TopicListing> getTopics() {
-        Collection<TopicListing> topics;
-        try {
-            topics = retryTemplate.execute(this::doGetTopics);
-        } catch (Throwable t) {
-            throw new KafkaClientException("Reached max number of retry for reading kafka topic(s)!", t);
-        }
-        return topics;
-    }
-
-    private Collection<TopicListing> doGetTopics(RetryContext retryContext)
-            throws ExecutionException, InterruptedException {
-        LOG.info("Reading kafka topic {}, attempt {}",
-                kafkaConfigData.getTopicNamesToCreate().toArray(), retryContext.getRetryCount());
-        Collection<TopicListing> topics = adminClient.listTopics().listings().get();
-        if (topics != null) {
-            topics.forEach(topic -> LOG.debug("Topic with name {}", topic.name()));
-        }
-        return topics;
-    }
-
 }
@@ -0,0 +1,165 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.kafka.avro.compact.TokenDictionary;
+import com.microservices.demo.kafka.avro.compact.TwitterCompactAvroModels;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.avro.model.TwitterCompactAvroModel;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.utils.BufferSupplier;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size and CPU cost of {@link TwitterAvroModel} against the dictionary encoded
+ * {@link TwitterCompactAvroModel}, each with every Kafka compression codec. A batch of the held out texts of
+ * {@link TweetTextSample}, which dictionary version 1 was not built from, is Avro encoded and compressed with the same
+ * streams the producer uses for a record batch, so the compressed size is close to what goes over the wire, without
+ * broker or schema registry. Encoding the compact format includes tokenizing, decoding includes converting back to
+ * {@link TwitterAvroModel}. The batch bytes and records counters give the compressed bytes per record.
+ * <p>
+ * The sample is small, hand-written English text about the tracked keywords, so the dictionary hit rate of live
+ * tweets, with more languages, mentions, links and emoji, is likely lower. A batch is the about 100 held out records,
+ * not a full producer batch, which gives the codecs less repetition to find than a busy topic would:
+ * <pre>
+ * java -jar kafka/kafka-benchmark/target/benchmarks.jar CompactSchemaBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompactSchemaBenchmark {
+
+    private static final int DICTIONARY_VERSION = 1;
+
+    @Param({"plain", "compact"})
+    public String format;
+
+    @Param({"none", "gzip", "snappy", "lz4", "zstd"})
+    public String compressionType;
+
+    private final SpecificDatumWriter<TwitterAvroModel> plainWriter =
+            new SpecificDatumWriter<>(TwitterAvroModel.class);
+
+    private final SpecificDatumWriter<TwitterCompactAvroModel> compactWriter =
+            new SpecificDatumWriter<>(TwitterCompactAvroModel.class);
+
+    private final SpecificDatumReader<TwitterAvroModel> plainReader =
+            new SpecificDatumReader<>(TwitterAvroModel.class);
+
+    private final SpecificDatumReader<TwitterCompactAvroModel> compactReader =
+            new SpecificDatumReader<>(TwitterCompactAvroModel.class);
+
+    private TwitterAvroModel[] batch;
+
+    private TokenDictionary dictionary;
+
+    private CompressionType compression;
+
+    private ByteBufferOutputStream bufferStream;
+
+    private BinaryEncoder encoder;
+
+    private BinaryDecoder decoder;
+
+    private ByteBuffer encodedBatch;
+
+    @Setup
+    public void setUp() throws IOException {
+        batch = TweetTextSample.heldOutRecords();
+        dictionary = TokenDictionary.load(DICTIONARY_VERSION);
+        compression = CompressionType.forName(compressionType);
+        bufferStream = new ByteBufferOutputStream(64 * 1024);
+        ByteBuffer encoded = encodeBatch();
+        encodedBatch = ByteBuffer.allocate(encoded.remaining()).put(encoded).flip();
+    }
+
+    @Benchmark
+    public int encode(BatchCounters batchCounters) throws IOException {
+        int batchBytes = encodeBatch().remaining();
+        batchCounters.records += batch.length;
+        batchCounters.batchBytes += batchBytes;
+        return batchBytes;
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException {
+        try (InputStream inputStream = compression.wrapForInput(encodedBatch.duplicate(),
+                RecordBatch.CURRENT_MAGIC_VALUE, BufferSupplier.NO_CACHING)) {
+            decoder = DecoderFactory.get().binaryDecoder(inputStream, decoder);
+            for (int i = 0; i < batch.length; i++) {
+                blackhole.consume(isCompact() ?
+                        TwitterCompactAvroModels.fromCompact(compactReader.read(null, decoder), version -> dictionary) :
+                        plainReader.read(null, decoder));
+            }
+        }
+    }
+
+    private ByteBuffer encodeBatch() throws IOException {
+        bufferStream.position(0);
+        try (OutputStream outputStream = compression.wrapForOutput(bufferStream, RecordBatch.CURRENT_MAGIC_VALUE)) {
+            encoder = EncoderFactory.get().binaryEncoder(outputStream, encoder);
+            for (TwitterAvroModel record : batch) {
+                if (isCompact()) {
+                    compactWriter.write(TwitterCompactAvroModels.toCompact(record, dictionary), encoder);
+                } else {
+                    plainWriter.write(record, encoder);
+                }
+            }
+            encoder.flush();
+        }
+        ByteBuffer buffer = bufferStream.buffer().duplicate();
+        buffer.flip();
+        return buffer;
+    }
+
+    private boolean isCompact() {
+        return "compact".equals(format);
+    }
+
+    /**
+     * Compressed bytes and records encoded during one iteration, JMH sums them over the measured iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class BatchCounters {
+
+        public long records;
+
+        public long batchBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+            batchBytes = 0;
+        }
+    }
+}
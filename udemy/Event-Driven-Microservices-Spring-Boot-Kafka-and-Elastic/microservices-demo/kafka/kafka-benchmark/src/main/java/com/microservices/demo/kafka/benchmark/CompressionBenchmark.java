@@ -0,0 +1,227 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.microservices.demo.kafka.producer.metrics.PipelineStageTimers;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer and consumer cost of each compression codec for {@link TwitterAvroModel} batches against an in-process
+ * broker, per batch-size and linger-ms. Each operation sends a batch and reads it back with a consumer, which fetches,
+ * decompresses and deserializes the records on the benchmark thread while the batch is still being sent. Besides
+ * batches per second it counts, per measured iteration, the records sent, the bytes the producer wrote to the
+ * network, the CPU time of the producer (the sending thread outside of polls and the producer I/O thread), the CPU
+ * time of the consumer polls, the latency from handing a record to the producer until the broker acknowledged it and
+ * the end-to-end latency from the record's create time until it was consumed, in milliseconds. The corpus is seeded,
+ * so runs are reproducible offline. {@link CompressionBenchmarkReport} runs this benchmark and prints the per record
+ * figures as a table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompressionBenchmark {
+
+    static final int RECORDS_PER_BATCH = 1000;
+
+    private static final String PRODUCER_THREAD_PREFIX = "kafka-producer-network-thread";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private static final long CONSUME_TIMEOUT_MS = 30_000;
+
+    @Param({"none", "gzip", "snappy", "lz4", "zstd"})
+    public String compressionType;
+
+    @Param({"16384", "262144"})
+    public int batchSize;
+
+    @Param({"0", "20"})
+    public int lingerMs;
+
+    private EmbeddedKafkaBroker broker;
+
+    private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    private KafkaConsumer<Long, TwitterAvroModel> consumer;
+
+    private Timer ackTimer;
+
+    private List<TwitterAvroModel> batch;
+
+    private long[] producerThreadIds;
+
+    private long consumerCpuNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = EmbeddedBrokerProducers.startBroker();
+        KafkaProducerConfigData producerConfigData = EmbeddedBrokerProducers.producerConfigData();
+        producerConfigData.setCompressionType(compressionType);
+        producerConfigData.setBatchSize(batchSize);
+        producerConfigData.setLingerMs(lingerMs);
+        kafkaTemplate = EmbeddedBrokerProducers.kafkaTemplate(broker, producerConfigData);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        twitterKafkaProducer = EmbeddedBrokerProducers.twitterKafkaProducer(kafkaTemplate, meterRegistry);
+        ackTimer = meterRegistry.get(PipelineStageTimers.STAGE_TIMER_NAME)
+                .tag(PipelineStageTimers.STAGE_TAG, "ack")
+                .timer();
+        batch = Arrays.asList(TwitterAvroModelCorpus.generate(RECORDS_PER_BATCH));
+        consumer = EmbeddedBrokerProducers.consumer(broker);
+        consume(twitterKafkaProducer.sendAll(EmbeddedBrokerProducers.TOPIC, batch, TwitterAvroModel::getUserId),
+                new ProducerCounters());
+        producerThreadIds = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith(PRODUCER_THREAD_PREFIX))
+                .mapToLong(Thread::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        consumer.close();
+        kafkaTemplate.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public BatchSendResult<TwitterAvroModel> sendAll(ProducerCounters producerCounters) {
+        CompletableFuture<BatchSendResult<TwitterAvroModel>> sent = twitterKafkaProducer.sendAll(
+                EmbeddedBrokerProducers.TOPIC, batch, TwitterAvroModel::getUserId);
+        int consumed = consume(sent, producerCounters);
+        BatchSendResult<TwitterAvroModel> result = sent.join();
+        producerCounters.update(this, result.getSuccessCount(), consumed);
+        return result;
+    }
+
+    /**
+     * Polls until every record of the batch was consumed, or once it is sent every record that succeeded, adding the
+     * end-to-end latency of each record to the counters and the CPU time of the polls to consumerCpuNanos.
+     */
+    private int consume(CompletableFuture<BatchSendResult<TwitterAvroModel>> sent, ProducerCounters producerCounters) {
+        ThreadMXBean threadMXBean = producerCounters.threadMXBean;
+        long deadlineMs = System.currentTimeMillis() + CONSUME_TIMEOUT_MS;
+        int consumed = 0;
+        while (consumed < (sent.isDone() ? sent.join().getSuccessCount() : batch.size()) &&
+                System.currentTimeMillis() < deadlineMs) {
+            long startCpuNanos = threadMXBean.getCurrentThreadCpuTime();
+            Iterable<ConsumerRecord<Long, TwitterAvroModel>> consumerRecords = consumer.poll(POLL_TIMEOUT);
+            consumerCpuNanos += threadMXBean.getCurrentThreadCpuTime() - startCpuNanos;
+            long nowMs = System.currentTimeMillis();
+            for (ConsumerRecord<Long, TwitterAvroModel> consumerRecord : consumerRecords) {
+                producerCounters.endToEndMillis += nowMs - consumerRecord.timestamp();
+                consumed++;
+            }
+        }
+        return consumed;
+    }
+
+    private double outgoingBytes() {
+        return ProducerMetrics.value(kafkaTemplate.metrics(), "outgoing-byte-total");
+    }
+
+    private long producerCpuNanos(ThreadMXBean threadMXBean) {
+        long cpuNanos = threadMXBean.getCurrentThreadCpuTime() - consumerCpuNanos;
+        for (long threadId : producerThreadIds) {
+            cpuNanos += Math.max(threadMXBean.getThreadCpuTime(threadId), 0);
+        }
+        return cpuNanos;
+    }
+
+    /**
+     * Totals of one iteration, JMH sums them over the measured iterations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ProducerCounters {
+
+        public long records;
+
+        public long wireBytes;
+
+        public long cpuNanos;
+
+        public long ackNanos;
+
+        public long acks;
+
+        public long consumed;
+
+        public long consumerCpuNanos;
+
+        public long endToEndMillis;
+
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        private double startBytes;
+
+        private long startCpuNanos;
+
+        private double startAckNanos;
+
+        private long startAcks;
+
+        private long startConsumerCpuNanos;
+
+        @Setup(Level.Iteration)
+        public void reset(CompressionBenchmark benchmark) {
+            records = 0;
+            wireBytes = 0;
+            cpuNanos = 0;
+            ackNanos = 0;
+            acks = 0;
+            consumed = 0;
+            consumerCpuNanos = 0;
+            endToEndMillis = 0;
+            startBytes = benchmark.outgoingBytes();
+            startCpuNanos = benchmark.producerCpuNanos(threadMXBean);
+            startAckNanos = benchmark.ackTimer.totalTime(TimeUnit.NANOSECONDS);
+            startAcks = benchmark.ackTimer.count();
+            startConsumerCpuNanos = benchmark.consumerCpuNanos;
+        }
+
+        private void update(CompressionBenchmark benchmark, long sentRecords, long consumedRecords) {
+            records += sentRecords;
+            consumed += consumedRecords;
+            consumerCpuNanos = benchmark.consumerCpuNanos - startConsumerCpuNanos;
+            wireBytes = (long) (benchmark.outgoingBytes() - startBytes);
+            cpuNanos = benchmark.producerCpuNanos(threadMXBean) - startCpuNanos;
+            ackNanos = (long) (benchmark.ackTimer.totalTime(TimeUnit.NANOSECONDS) - startAckNanos);
+            acks = benchmark.ackTimer.count() - startAcks;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.microservices.demo.kafka.benchmark;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs {@link CompressionBenchmark} and writes one CSV row per codec, batch size and linger, to the file given as
+ * first argument or to standard out. ack_latency_mean_ms is producer side only, from send until the broker's
+ * acknowledgement; end_to_end_latency_mean_ms also includes the consumer's fetch and decompression:
+ * <pre>
+ * java -cp kafka/kafka-benchmark/target/benchmarks.jar \
+ *     com.microservices.demo.kafka.benchmark.CompressionBenchmarkReport compression.csv
+ * </pre>
+ */
+public final class CompressionBenchmarkReport {
+
+    private static final String HEADER = "compression_type,batch_size,linger_ms,records_per_second," +
+            "wire_bytes_per_record,producer_cpu_ns_per_record,consumer_cpu_ns_per_record,ack_latency_mean_ms," +
+            "end_to_end_latency_mean_ms";
+
+    private CompressionBenchmarkReport() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Options options = new OptionsBuilder()
+                .include(CompressionBenchmark.class.getSimpleName())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        if (args.length > 0) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(args[0])))) {
+                write(results, out);
+            }
+        } else {
+            write(results, System.out);
+        }
+    }
+
+    private static void write(Collection<RunResult> results, PrintStream out) {
+        out.println(HEADER);
+        for (RunResult result : results) {
+            Map<String, Result> counters = result.getSecondaryResults();
+            double records = score(counters, "records");
+            double acks = score(counters, "acks");
+            double consumed = score(counters, "consumed");
+            out.println(String.format(Locale.ROOT, "%s,%s,%s,%.0f,%.1f,%.0f,%.0f,%.3f,%.3f",
+                    result.getParams().getParam("compressionType"),
+                    result.getParams().getParam("batchSize"),
+                    result.getParams().getParam("lingerMs"),
+                    result.getPrimaryResult().getScore() * CompressionBenchmark.RECORDS_PER_BATCH,
+                    score(counters, "wireBytes") / records,
+                    score(counters, "cpuNanos") / records,
+                    score(counters, "consumerCpuNanos") / consumed,
+                    score(counters, "ackNanos") / acks / 1_000_000,
+                    score(counters, "endToEndMillis") / consumed));
+        }
+    }
+
+    private static double score(Map<String, Result> counters, String name) {
+        Result counter = counters.get(name);
+        return counter != null ? counter.getScore() : Double.NaN;
+    }
+}
@@ -0,0 +1,138 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.PipelineLoggingConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.KafkaProducerConfig;
+import com.microservices.demo.kafka.producer.config.pool.ShardedProducerPool;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.microservices.demo.kafka.producer.guard.ProducerGuard;
+import com.microservices.demo.kafka.producer.logging.PipelineLogging;
+import com.microservices.demo.kafka.producer.metrics.TimeToFirstRecord;
+import com.microservices.demo.kafka.producer.reactive.ReactiveKafkaSender;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.LongDeserializer;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-process broker and producers built through {@link KafkaProducerConfig}, so producer benchmarks measure the same
+ * producer setup the service uses. The schema registry is an in-memory mock, shared with the consumer that reads the
+ * records back.
+ */
+public final class EmbeddedBrokerProducers {
+
+    public static final String TOPIC = "twitter-topic";
+
+    private static final int PARTITIONS = 3;
+
+    private static final String SCHEMA_REGISTRY_URL = "mock://kafka-benchmark";
+
+    private EmbeddedBrokerProducers() {
+    }
+
+    public static EmbeddedKafkaBroker startBroker() {
+        return startBroker(PARTITIONS);
+    }
+
+    public static EmbeddedKafkaBroker startBroker(int partitions) {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaBroker(1, false, partitions, TOPIC)
+                .brokerProperty("transaction.state.log.replication.factor", "1")
+                .brokerProperty("transaction.state.log.min.isr", "1");
+        broker.afterPropertiesSet();
+        return broker;
+    }
+
+    public static KafkaProducerConfigData producerConfigData() {
+        KafkaProducerConfigData producerConfigData = new KafkaProducerConfigData();
+        producerConfigData.setKeySerializerClass(LongSerializer.class.getName());
+        producerConfigData.setValueSerializerClass(KafkaAvroSerializer.class.getName());
+        producerConfigData.setCompressionType("none");
+        producerConfigData.setAcks("all");
+        producerConfigData.setBatchSize(16384);
+        producerConfigData.setBatchSizeBoostFactor(1);
+        producerConfigData.setLingerMs(5);
+        producerConfigData.setRequestTimeoutMs(60000);
+        producerConfigData.setRetryCount(5);
+        return producerConfigData;
+    }
+
+    public static KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate(EmbeddedKafkaBroker broker,
+                                                                     KafkaProducerConfigData producerConfigData) {
+        return producerConfig(broker, producerConfigData).kafkaTemplate();
+    }
+
+    /**
+     * Producer pool of producer-pool-size producers, a disabled pool for a size of 1.
+     */
+    public static ShardedProducerPool<Long, TwitterAvroModel> producerPool(EmbeddedKafkaBroker broker,
+                                                                          KafkaProducerConfigData producerConfigData) {
+        return producerConfig(broker, producerConfigData).producerPool();
+    }
+
+    public static ReactiveKafkaSender<Long, TwitterAvroModel> reactiveKafkaSender(
+            EmbeddedKafkaBroker broker, KafkaProducerConfigData producerConfigData) {
+        return producerConfig(broker, producerConfigData).reactiveKafkaSender();
+    }
+
+    public static TwitterKafkaProducer twitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate) {
+        return twitterKafkaProducer(kafkaTemplate, new SimpleMeterRegistry());
+    }
+
+    public static TwitterKafkaProducer twitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate,
+                                                            MeterRegistry meterRegistry) {
+        return twitterKafkaProducer(kafkaTemplate, meterRegistry, new ShardedProducerPool<>(Map.of(), 1));
+    }
+
+    public static TwitterKafkaProducer twitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate,
+                                                            MeterRegistry meterRegistry,
+                                                            ShardedProducerPool<Long, TwitterAvroModel> producerPool) {
+        PipelineLoggingConfigData pipelineLoggingConfigData = new PipelineLoggingConfigData();
+        pipelineLoggingConfigData.setSummaryIntervalMs(10000L);
+        return new TwitterKafkaProducer(kafkaTemplate, meterRegistry, new PipelineLogging(pipelineLoggingConfigData),
+                new TimeToFirstRecord(event -> { }, meterRegistry),
+                new ProducerGuard(producerConfigData(), meterRegistry), producerPool);
+    }
+
+    /**
+     * Consumer of all partitions of the topic, positioned at their end, without a consumer group.
+     */
+    public static KafkaConsumer<Long, TwitterAvroModel> consumer(EmbeddedKafkaBroker broker) {
+        KafkaConsumer<Long, TwitterAvroModel> consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, LongDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, KafkaAvroDeserializer.class,
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                KafkaAvroDeserializerConfig.SCHEMA_REGISTRY_URL_CONFIG, SCHEMA_REGISTRY_URL,
+                KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, true));
+        List<TopicPartition> partitions = consumer.partitionsFor(TOPIC).stream()
+                .map(partitionInfo -> new TopicPartition(TOPIC, partitionInfo.partition()))
+                .collect(Collectors.toList());
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        partitions.forEach(consumer::position);
+        return consumer;
+    }
+
+    private static KafkaProducerConfig<Long, TwitterAvroModel> producerConfig(
+            EmbeddedKafkaBroker broker, KafkaProducerConfigData producerConfigData) {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setBootstrapServers(broker.getBrokersAsString());
+        kafkaConfigData.setSchemaRegistryUrlKey("schema.registry.url");
+        kafkaConfigData.setSchemaRegistryUrl(SCHEMA_REGISTRY_URL);
+        return new KafkaProducerConfig<>(kafkaConfigData, producerConfigData, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,106 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.pool.ShardedProducerPool;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TwitterKafkaProducer} with 1 to 8 pooled producers against an in-process broker. Several
+ * benchmark threads send batches concurrently, like the hand-off sender threads do, and the records counter gives
+ * acknowledged records per second. A pool size of 1 is the single shared producer of the kafka template. Scaling
+ * stops where the broker, not the producer I/O threads, is the bottleneck, so absolute numbers are only comparable on
+ * the same host:
+ * <pre>
+ * java -jar kafka/kafka-benchmark/target/benchmarks.jar ProducerPoolBenchmark -rf csv
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class ProducerPoolBenchmark {
+
+    private static final int PARTITIONS = 16;
+
+    private static final int RECORDS_PER_BATCH = 500;
+
+    @Param({"1", "2", "4", "8"})
+    public int producerPoolSize;
+
+    private EmbeddedKafkaBroker broker;
+
+    private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+
+    private ShardedProducerPool<Long, TwitterAvroModel> producerPool;
+
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    private List<TwitterAvroModel> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = EmbeddedBrokerProducers.startBroker(PARTITIONS);
+        KafkaProducerConfigData producerConfigData = EmbeddedBrokerProducers.producerConfigData();
+        producerConfigData.setProducerPoolSize(producerPoolSize);
+        kafkaTemplate = EmbeddedBrokerProducers.kafkaTemplate(broker, producerConfigData);
+        producerPool = EmbeddedBrokerProducers.producerPool(broker, producerConfigData);
+        twitterKafkaProducer = EmbeddedBrokerProducers.twitterKafkaProducer(kafkaTemplate, new SimpleMeterRegistry(),
+                producerPool);
+        batch = Arrays.asList(TwitterAvroModelCorpus.generate(RECORDS_PER_BATCH));
+        twitterKafkaProducer.sendAll(EmbeddedBrokerProducers.TOPIC, batch, TwitterAvroModel::getUserId).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerPool.close();
+        kafkaTemplate.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public BatchSendResult<TwitterAvroModel> sendAll(RecordCounter recordCounter) {
+        BatchSendResult<TwitterAvroModel> result = twitterKafkaProducer.sendAll(EmbeddedBrokerProducers.TOPIC, batch,
+                TwitterAvroModel::getUserId).join();
+        recordCounter.records += result.getSuccessCount();
+        return result;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RecordCounter {
+
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+        }
+    }
+}
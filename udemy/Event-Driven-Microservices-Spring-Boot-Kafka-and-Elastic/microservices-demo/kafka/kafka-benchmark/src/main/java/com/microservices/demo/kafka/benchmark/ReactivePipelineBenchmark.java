@@ -0,0 +1,155 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.microservices.demo.kafka.producer.reactive.ReactiveKafkaSender;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listener pipeline against the reactive pipeline of the twitter service, each sending a burst of tweets to an
+ * in-process broker. The handOff benchmark mimics the hand-off buffer: sender threads take batches of
+ * hand-off-drain-size records and wait for each {@link TwitterKafkaProducer#sendAll} before taking the next one. The
+ * reactive benchmark sends the burst as one flux through {@link ReactiveKafkaSender}, once per max-in-flight limit;
+ * the limit has no counterpart in the hand-off pipeline, which runs once. Throughput mode with the records counter
+ * gives acknowledged records per second, average time mode the latency of a whole burst:
+ * <pre>
+ * java -jar kafka/kafka-benchmark/target/benchmarks.jar ReactivePipelineBenchmark -rf csv
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReactivePipelineBenchmark {
+
+    private static final int RECORDS_PER_BURST = 10_000;
+
+    private static final int HAND_OFF_DRAIN_SIZE = 500;
+
+    private static final int HAND_OFF_SENDER_THREADS = 2;
+
+    private EmbeddedKafkaBroker broker;
+
+    private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    private ExecutorService senderExecutor;
+
+    private List<TwitterAvroModel> burst;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = EmbeddedBrokerProducers.startBroker();
+        kafkaTemplate = EmbeddedBrokerProducers.kafkaTemplate(broker, EmbeddedBrokerProducers.producerConfigData());
+        twitterKafkaProducer = EmbeddedBrokerProducers.twitterKafkaProducer(kafkaTemplate);
+        senderExecutor = Executors.newFixedThreadPool(HAND_OFF_SENDER_THREADS);
+        burst = Arrays.asList(TwitterAvroModelCorpus.generate(RECORDS_PER_BURST));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        senderExecutor.shutdownNow();
+        kafkaTemplate.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public long handOff(RecordCounter recordCounter) {
+        AtomicInteger nextRecord = new AtomicInteger();
+        List<CompletableFuture<Long>> senders = new ArrayList<>(HAND_OFF_SENDER_THREADS);
+        for (int i = 0; i < HAND_OFF_SENDER_THREADS; i++) {
+            senders.add(CompletableFuture.supplyAsync(() -> drain(nextRecord), senderExecutor));
+        }
+        long acknowledged = senders.stream().mapToLong(CompletableFuture::join).sum();
+        recordCounter.records += acknowledged;
+        return acknowledged;
+    }
+
+    @Benchmark
+    public long reactive(ReactiveSender reactiveSender, RecordCounter recordCounter) {
+        Long acknowledged = reactiveSender.reactiveKafkaSender.send(Flux.fromIterable(burst), twitterAvroModel ->
+                        EmbeddedBrokerProducers.TOPIC, TwitterAvroModel::getUserId)
+                .filter(result -> result.exception() == null)
+                .count()
+                .block();
+        long records = acknowledged == null ? 0 : acknowledged;
+        recordCounter.records += records;
+        return records;
+    }
+
+    private long drain(AtomicInteger nextRecord) {
+        long acknowledged = 0;
+        for (int from = nextRecord.getAndAdd(HAND_OFF_DRAIN_SIZE); from < burst.size();
+             from = nextRecord.getAndAdd(HAND_OFF_DRAIN_SIZE)) {
+            List<TwitterAvroModel> batch = burst.subList(from, Math.min(from + HAND_OFF_DRAIN_SIZE, burst.size()));
+            acknowledged += twitterKafkaProducer.sendAll(EmbeddedBrokerProducers.TOPIC, batch,
+                    TwitterAvroModel::getUserId).join().getSuccessCount();
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Reactive sender per max-in-flight limit, only used by the reactive benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class ReactiveSender {
+
+        @Param({"256", "1024"})
+        public int reactiveMaxInFlight;
+
+        private ReactiveKafkaSender<Long, TwitterAvroModel> reactiveKafkaSender;
+
+        @Setup(Level.Trial)
+        public void setUp(ReactivePipelineBenchmark benchmark) {
+            KafkaProducerConfigData producerConfigData = EmbeddedBrokerProducers.producerConfigData();
+            producerConfigData.setReactiveMaxInFlight(reactiveMaxInFlight);
+            reactiveKafkaSender = EmbeddedBrokerProducers.reactiveKafkaSender(benchmark.broker, producerConfigData);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            reactiveKafkaSender.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RecordCounter {
+
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput cost of idempotence and transactions per batch size, against an in-process broker. Every invocation
+ * sends one batch through {@link TwitterKafkaProducer#sendAll} and waits for its result, the records counter gives
+ * acknowledged records per second. All modes use acks=all, so the difference is the cost of idempotence and of the
+ * transaction round trips:
+ * <pre>
+ * java -jar kafka/kafka-benchmark/target/benchmarks.jar TransactionalProducerBenchmark -rf csv
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionalProducerBenchmark {
+
+    @Param({"at_least_once", "idempotent", "transactional"})
+    public String mode;
+
+    @Param({"1", "50", "500", "5000"})
+    public int batchSize;
+
+    private EmbeddedKafkaBroker broker;
+
+    private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    private List<TwitterAvroModel> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = EmbeddedBrokerProducers.startBroker();
+        KafkaProducerConfigData producerConfigData = EmbeddedBrokerProducers.producerConfigData();
+        producerConfigData.setEnableIdempotence("idempotent".equals(mode));
+        producerConfigData.setTransactionsEnabled("transactional".equals(mode));
+        producerConfigData.setTransactionalIdPrefix("benchmark-tx-");
+        kafkaTemplate = EmbeddedBrokerProducers.kafkaTemplate(broker, producerConfigData);
+        twitterKafkaProducer = EmbeddedBrokerProducers.twitterKafkaProducer(kafkaTemplate);
+        batch = Arrays.asList(TwitterAvroModelCorpus.generate(batchSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        kafkaTemplate.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public BatchSendResult<TwitterAvroModel> sendAll(RecordCounter recordCounter) {
+        BatchSendResult<TwitterAvroModel> result = twitterKafkaProducer.sendAll(EmbeddedBrokerProducers.TOPIC, batch,
+                TwitterAvroModel::getUserId).join();
+        recordCounter.records += result.getSuccessCount();
+        return result;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RecordCounter {
+
+        public long records;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            records = 0;
+        }
+    }
+}
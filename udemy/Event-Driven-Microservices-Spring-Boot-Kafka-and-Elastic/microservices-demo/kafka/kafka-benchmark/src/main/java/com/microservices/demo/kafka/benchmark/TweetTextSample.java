@@ -0,0 +1,95 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.kafka.avro.compact.TokenDictionary;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hand-written sample of tweet texts about the tracked keywords. The even lines are the texts token dictionary
+ * version 1 was built from, the odd lines are held out for benchmarks, so that the compact format is measured on text
+ * the dictionary has not seen. Running this class prints version 1 again:
+ * <pre>
+ * java -cp kafka/kafka-benchmark/target/benchmarks.jar com.microservices.demo.kafka.benchmark.TweetTextSample
+ * </pre>
+ */
+public final class TweetTextSample {
+
+    private static final String RESOURCE = "/corpus/tweet-text-sample.txt";
+
+    /**
+     * Ids up to 127 take one varint byte.
+     */
+    private static final int DICTIONARY_MAX_TOKENS = 127;
+
+    private static final long START_TIME_MS = 1_600_000_000_000L;
+
+    private static final List<String> KEYWORDS = List.of("Java", "Microservices", "Kafka", "Elasticsearch");
+
+    private TweetTextSample() {
+    }
+
+    public static List<String> dictionaryTexts() {
+        return texts(0);
+    }
+
+    public static List<String> heldOutTexts() {
+        return texts(1);
+    }
+
+    /**
+     * @return one record per held out text, keyed like the pipeline by the keywords its text contains
+     */
+    public static TwitterAvroModel[] heldOutRecords() {
+        List<String> texts = heldOutTexts();
+        TwitterAvroModel[] records = new TwitterAvroModel[texts.size()];
+        for (int i = 0; i < records.length; i++) {
+            String text = texts.get(i);
+            records[i] = TwitterAvroModel.newBuilder()
+                    .setId(START_TIME_MS + i)
+                    .setUserId(i % 97)
+                    .setText(text)
+                    .setCreatedAt(START_TIME_MS + i * 10L)
+                    .setKeywords(Arrays.stream(text.split(" ")).filter(KEYWORDS::contains).distinct()
+                            .collect(Collectors.toList()))
+                    .build();
+        }
+        return records;
+    }
+
+    public static void main(String[] args) {
+        TokenDictionary.build(1, dictionaryTexts(), DICTIONARY_MAX_TOKENS).getTokens().forEach(System.out::println);
+    }
+
+    private static List<String> texts(int parity) {
+        List<String> lines = lines();
+        List<String> texts = new ArrayList<>(lines.size() / 2 + 1);
+        for (int i = parity; i < lines.size(); i += 2) {
+            texts.add(lines.get(i));
+        }
+        return texts;
+    }
+
+    private static List<String> lines() {
+        try (InputStream inputStream = TweetTextSample.class.getResourceAsStream(RESOURCE)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Tweet text sample " + RESOURCE + " not on the classpath");
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream,
+                    StandardCharsets.UTF_8))) {
+                return reader.lines().filter(line -> !line.isEmpty()).collect(Collectors.toList());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read tweet text sample " + RESOURCE, e);
+        }
+    }
+}
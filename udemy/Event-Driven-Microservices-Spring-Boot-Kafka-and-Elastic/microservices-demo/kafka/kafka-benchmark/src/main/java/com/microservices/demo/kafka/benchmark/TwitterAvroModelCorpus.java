@@ -0,0 +1,62 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible set of tweet-like records. The same seed always yields the same records, so results of different
+ * benchmark runs are comparable offline.
+ */
+public final class TwitterAvroModelCorpus {
+
+    private static final long SEED = 42L;
+
+    private static final long START_TIME_MS = 1_600_000_000_000L;
+
+    private static final String[] WORDS = new String[]{
+            "Lorem", "ipsum", "dolor", "sit", "amet", "consectetuer", "adipiscing", "elit", "Maecenas",
+            "porttitor", "congue", "massa", "Fusce", "posuere", "magna", "sed", "pulvinar", "ultricies",
+            "purus", "lectus", "malesuada", "libero"
+    };
+
+    private static final String[] KEYWORDS = new String[]{"Java", "Microservices", "Kafka", "Elasticsearch"};
+
+    private static final int MIN_TWEET_LENGTH = 5;
+
+    private static final int MAX_TWEET_LENGTH = 15;
+
+    private static final int USER_COUNT = 10_000;
+
+    private TwitterAvroModelCorpus() {
+    }
+
+    public static TwitterAvroModel[] generate(int size) {
+        Random random = new Random(SEED);
+        TwitterAvroModel[] records = new TwitterAvroModel[size];
+        for (int i = 0; i < size; i++) {
+            String keyword = KEYWORDS[random.nextInt(KEYWORDS.length)];
+            records[i] = TwitterAvroModel.newBuilder()
+                    .setId(START_TIME_MS + i)
+                    .setUserId(random.nextInt(USER_COUNT))
+                    .setText(text(random, keyword))
+                    .setCreatedAt(START_TIME_MS + i * 10L)
+                    .setKeywords(List.of(keyword))
+                    .build();
+        }
+        return records;
+    }
+
+    private static String text(Random random, String keyword) {
+        int length = MIN_TWEET_LENGTH + random.nextInt(MAX_TWEET_LENGTH - MIN_TWEET_LENGTH + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            if (i == length / 2) {
+                text.append(keyword).append(' ');
+            }
+        }
+        return text.toString().trim();
+    }
+}
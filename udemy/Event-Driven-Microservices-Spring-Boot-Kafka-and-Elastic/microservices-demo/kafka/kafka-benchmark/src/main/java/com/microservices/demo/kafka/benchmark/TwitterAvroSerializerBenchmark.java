@@ -0,0 +1,77 @@
+package com.microservices.demo.kafka.benchmark;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.serializer.TwitterAvroSerializer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock confluent serializer against {@link TwitterAvroSerializer}. Run with the gc profiler to compare allocation
+ * per record as well as time:
+ * <pre>
+ * java -jar kafka/kafka-benchmark/target/benchmarks.jar TwitterAvroSerializerBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TwitterAvroSerializerBenchmark {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final int CORPUS_SIZE = 1024;
+
+    private KafkaAvroSerializer kafkaAvroSerializer;
+
+    private TwitterAvroSerializer twitterAvroSerializer;
+
+    private TwitterAvroModel[] records;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> configs = Map.of(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                "http://localhost:8081");
+        SchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+        kafkaAvroSerializer = new KafkaAvroSerializer(schemaRegistryClient);
+        kafkaAvroSerializer.configure(configs, false);
+        twitterAvroSerializer = new TwitterAvroSerializer(schemaRegistryClient);
+        twitterAvroSerializer.configure(configs, false);
+        records = TwitterAvroModelCorpus.generate(CORPUS_SIZE);
+    }
+
+    @Benchmark
+    public byte[] kafkaAvroSerializer() {
+        return kafkaAvroSerializer.serialize(TOPIC, nextRecord());
+    }
+
+    @Benchmark
+    public byte[] twitterAvroSerializer() {
+        return twitterAvroSerializer.serialize(TOPIC, nextRecord());
+    }
+
+    private TwitterAvroModel nextRecord() {
+        TwitterAvroModel record = records[index];
+        index = (index + 1) % records.length;
+        return record;
+    }
+}
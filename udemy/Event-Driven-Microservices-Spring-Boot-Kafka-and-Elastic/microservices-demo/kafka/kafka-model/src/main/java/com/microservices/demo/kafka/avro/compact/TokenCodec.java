@@ -0,0 +1,147 @@
+package com.microservices.demo.kafka.avro.compact;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes tokens against a {@link TokenDictionary}. Every token is an unsigned LEB128 varint: its dictionary id, or
+ * 0 followed by the varint UTF-8 length and the bytes of a literal token. Tokens run until the end of the buffer,
+ * there is no count prefix. Dictionary hits among the first 127 ids take a single byte.
+ * <p>
+ * Text is split at every single space, so consecutive, leading and trailing spaces become empty literals and
+ * {@link #decodeText} returns exactly the encoded string.
+ */
+public final class TokenCodec {
+
+    private static final int LITERAL = 0;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private TokenCodec() {
+    }
+
+    public static ByteBuffer encodeText(String text, TokenDictionary dictionary) {
+        if (text.isEmpty()) {
+            return ByteBuffer.allocate(0);
+        }
+        Writer writer = new Writer(text.length());
+        int start = 0;
+        int end;
+        while ((end = text.indexOf(' ', start)) >= 0) {
+            writer.writeToken(text.substring(start, end), dictionary);
+            start = end + 1;
+        }
+        writer.writeToken(text.substring(start), dictionary);
+        return writer.toByteBuffer();
+    }
+
+    public static String decodeText(ByteBuffer encoded, TokenDictionary dictionary) {
+        ByteBuffer buffer = encoded.duplicate();
+        StringBuilder text = new StringBuilder(buffer.remaining() * 6);
+        if (buffer.hasRemaining()) {
+            text.append(readToken(buffer, dictionary));
+        }
+        while (buffer.hasRemaining()) {
+            text.append(' ').append(readToken(buffer, dictionary));
+        }
+        return text.toString();
+    }
+
+    public static ByteBuffer encodeTokens(List<String> tokens, TokenDictionary dictionary) {
+        Writer writer = new Writer(tokens.size() * 2);
+        for (String token : tokens) {
+            writer.writeToken(token, dictionary);
+        }
+        return writer.toByteBuffer();
+    }
+
+    public static List<String> decodeTokens(ByteBuffer encoded, TokenDictionary dictionary) {
+        ByteBuffer buffer = encoded.duplicate();
+        List<String> tokens = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            tokens.add(readToken(buffer, dictionary));
+        }
+        return tokens;
+    }
+
+    private static String readToken(ByteBuffer buffer, TokenDictionary dictionary) {
+        int id = readVarInt(buffer);
+        if (id != LITERAL) {
+            return dictionary.token(id);
+        }
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Literal of " + length + " bytes exceeds the " + buffer.remaining() +
+                    " remaining bytes");
+        }
+        if (!buffer.hasArray()) {
+            byte[] utf8 = new byte[length];
+            buffer.get(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+        String literal = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return literal;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 5 bytes");
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes;
+
+        private int position;
+
+        Writer(int expectedSize) {
+            bytes = new byte[Math.max(expectedSize, INITIAL_CAPACITY)];
+        }
+
+        void writeToken(String token, TokenDictionary dictionary) {
+            int id = dictionary.idOf(token);
+            writeVarInt(id);
+            if (id == LITERAL) {
+                byte[] utf8 = token.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(utf8.length);
+                ensureCapacity(utf8.length);
+                System.arraycopy(utf8, 0, bytes, position, utf8.length);
+                position += utf8.length;
+            }
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(Arrays.copyOf(bytes, position));
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + additional));
+            }
+        }
+    }
+}
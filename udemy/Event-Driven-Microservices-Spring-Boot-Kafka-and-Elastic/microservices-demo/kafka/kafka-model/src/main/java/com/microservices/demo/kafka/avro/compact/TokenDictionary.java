@@ -0,0 +1,118 @@
+package com.microservices.demo.kafka.avro.compact;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned token dictionary shared by producers and consumers of {@code TwitterCompactAvroModel}. Token
+ * ids start at 1, id 0 is reserved by {@link TokenCodec} for tokens written as literals. A version must never change
+ * once records were written with it; new vocabulary goes into a new version file. Version 1 holds the 127 most
+ * frequent tokens of a sample of tweet texts, built with {@link #build}.
+ */
+public final class TokenDictionary {
+
+    static final String RESOURCE_PATTERN = "/dictionary/tweet-tokens-v%d.txt";
+
+    private static final Map<Integer, TokenDictionary> LOADED = new ConcurrentHashMap<>();
+
+    private final int version;
+
+    private final String[] tokens;
+
+    private final Map<String, Integer> ids;
+
+    public TokenDictionary(int version, List<String> tokens) {
+        this.version = version;
+        this.tokens = tokens.toArray(new String[0]);
+        this.ids = new HashMap<>(tokens.size() * 2);
+        for (int i = 0; i < this.tokens.length; i++) {
+            if (this.tokens[i].isEmpty() || ids.putIfAbsent(this.tokens[i], i + 1) != null) {
+                throw new IllegalArgumentException("Empty or duplicate token '" + this.tokens[i] + "' in version " +
+                        version);
+            }
+        }
+    }
+
+    /**
+     * Loads the dictionary of the given version from the classpath, one token per line. Loaded versions are cached.
+     */
+    public static TokenDictionary load(int version) {
+        return LOADED.computeIfAbsent(version, TokenDictionary::read);
+    }
+
+    /**
+     * Builds a dictionary of the most frequent space separated tokens of the given texts, e.g. to prepare the next
+     * version file from a sample of recent tweets. Ties are ordered alphabetically, so the result is reproducible.
+     */
+    public static TokenDictionary build(int version, Iterable<String> texts, int maxTokens) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String text : texts) {
+            for (String token : text.split(" ")) {
+                if (!token.isEmpty()) {
+                    counts.merge(token, 1, Integer::sum);
+                }
+            }
+        }
+        List<String> tokens = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxTokens)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return new TokenDictionary(version, tokens);
+    }
+
+    /**
+     * @return the id of the token, or 0 if the token is not in the dictionary
+     */
+    public int idOf(String token) {
+        return ids.getOrDefault(token, 0);
+    }
+
+    public String token(int id) {
+        if (id < 1 || id > tokens.length) {
+            throw new IllegalArgumentException("Token id " + id + " not in dictionary version " + version);
+        }
+        return tokens[id - 1];
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return tokens.length;
+    }
+
+    public List<String> getTokens() {
+        return List.of(tokens);
+    }
+
+    private static TokenDictionary read(int version) {
+        String resource = String.format(RESOURCE_PATTERN, version);
+        try (InputStream inputStream = TokenDictionary.class.getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("No token dictionary for version " + version + " at " + resource);
+            }
+            List<String> tokens = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream,
+                    StandardCharsets.UTF_8))) {
+                reader.lines().filter(line -> !line.isEmpty()).forEach(tokens::add);
+            }
+            return new TokenDictionary(version, tokens);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read token dictionary " + resource, e);
+        }
+    }
+}
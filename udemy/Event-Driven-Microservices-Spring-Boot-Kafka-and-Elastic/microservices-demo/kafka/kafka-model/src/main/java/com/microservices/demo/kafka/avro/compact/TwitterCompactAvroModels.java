@@ -0,0 +1,48 @@
+package com.microservices.demo.kafka.avro.compact;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.avro.model.TwitterCompactAvroModel;
+
+import java.util.function.IntFunction;
+
+/**
+ * Converts between {@link TwitterAvroModel} and {@link TwitterCompactAvroModel}. A compact record carries the version
+ * of the dictionary it was encoded with, so consumers decode it with the same version even after producers moved on
+ * to a newer one.
+ */
+public final class TwitterCompactAvroModels {
+
+    private TwitterCompactAvroModels() {
+    }
+
+    public static TwitterCompactAvroModel toCompact(TwitterAvroModel model, TokenDictionary dictionary) {
+        return TwitterCompactAvroModel.newBuilder()
+                .setUserId(model.getUserId())
+                .setId(model.getId())
+                .setDictionaryVersion(dictionary.getVersion())
+                .setTextTokens(model.getText() == null ? null : TokenCodec.encodeText(model.getText(), dictionary))
+                .setCreatedAt(model.getCreatedAt())
+                .setKeywordTokens(TokenCodec.encodeTokens(model.getKeywords(), dictionary))
+                .build();
+    }
+
+    public static TwitterAvroModel fromCompact(TwitterCompactAvroModel compact) {
+        return fromCompact(compact, TokenDictionary::load);
+    }
+
+    /**
+     * @param dictionaries resolves the dictionary of a version, e.g. {@link TokenDictionary#load}
+     */
+    public static TwitterAvroModel fromCompact(TwitterCompactAvroModel compact,
+                                               IntFunction<TokenDictionary> dictionaries) {
+        TokenDictionary dictionary = dictionaries.apply(compact.getDictionaryVersion());
+        return TwitterAvroModel.newBuilder()
+                .setUserId(compact.getUserId())
+                .setId(compact.getId())
+                .setText(compact.getTextTokens() == null ? null :
+                        TokenCodec.decodeText(compact.getTextTokens(), dictionary))
+                .setCreatedAt(compact.getCreatedAt())
+                .setKeywords(TokenCodec.decodeTokens(compact.getKeywordTokens(), dictionary))
+                .build();
+    }
+}
@@ -15,7 +15,7 @@ import org.apache.avro.message.SchemaStore;
 @org.apache.avro.specific.AvroGenerated
 public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
   private static final long serialVersionUID = -5190598237215532904L;
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"namespace\":\"com.microservices.demo.kafka.avro.model\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}]},{\"name\":\"createdAt\",\"type\":[\"null\",\"long\"],\"logicalType\":[\"null\",\"date\"]}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"namespace\":\"com.microservices.demo.kafka.avro.model\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}]},{\"name\":\"createdAt\",\"type\":[\"null\",\"long\"],\"logicalType\":[\"null\",\"date\"]},{\"name\":\"keywords\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"default\":[]}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   private static SpecificData MODEL$ = new SpecificData();
@@ -75,6 +75,7 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
    private long id;
    private java.lang.String text;
    private java.lang.Long createdAt;
+   private java.util.List<java.lang.String> keywords;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -89,12 +90,14 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
    * @param id The new value for id
    * @param text The new value for text
    * @param createdAt The new value for createdAt
+   * @param keywords The new value for keywords
    */
-  public TwitterAvroModel(java.lang.Long userId, java.lang.Long id, java.lang.String text, java.lang.Long createdAt) {
+  public TwitterAvroModel(java.lang.Long userId, java.lang.Long id, java.lang.String text, java.lang.Long createdAt, java.util.List<java.lang.String> keywords) {
     this.userId = userId;
     this.id = id;
     this.text = text;
     this.createdAt = createdAt;
+    this.keywords = keywords;
   }
 
   public org.apache.avro.specific.SpecificData getSpecificData() { return MODEL$; }
@@ -106,6 +109,7 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     case 1: return id;
     case 2: return text;
     case 3: return createdAt;
+    case 4: return keywords;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -118,6 +122,7 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     case 1: id = (java.lang.Long)value$; break;
     case 2: text = value$ != null ? value$.toString() : null; break;
     case 3: createdAt = (java.lang.Long)value$; break;
+    case 4: keywords = (java.util.List<java.lang.String>)value$; break;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -190,6 +195,23 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     this.createdAt = value;
   }
 
+  /**
+   * Gets the value of the 'keywords' field.
+   * @return The value of the 'keywords' field.
+   */
+  public java.util.List<java.lang.String> getKeywords() {
+    return keywords;
+  }
+
+
+  /**
+   * Sets the value of the 'keywords' field.
+   * @param value the value to set.
+   */
+  public void setKeywords(java.util.List<java.lang.String> value) {
+    this.keywords = value;
+  }
+
   /**
    * Creates a new TwitterAvroModel RecordBuilder.
    * @return A new TwitterAvroModel RecordBuilder
@@ -235,6 +257,7 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     private long id;
     private java.lang.String text;
     private java.lang.Long createdAt;
+    private java.util.List<java.lang.String> keywords;
 
     /** Creates a new Builder */
     private Builder() {
@@ -263,6 +286,10 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         this.createdAt = data().deepCopy(fields()[3].schema(), other.createdAt);
         fieldSetFlags()[3] = other.fieldSetFlags()[3];
       }
+      if (isValidValue(fields()[4], other.keywords)) {
+        this.keywords = data().deepCopy(fields()[4].schema(), other.keywords);
+        fieldSetFlags()[4] = other.fieldSetFlags()[4];
+      }
     }
 
     /**
@@ -287,6 +314,10 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         this.createdAt = data().deepCopy(fields()[3].schema(), other.createdAt);
         fieldSetFlags()[3] = true;
       }
+      if (isValidValue(fields()[4], other.keywords)) {
+        this.keywords = data().deepCopy(fields()[4].schema(), other.keywords);
+        fieldSetFlags()[4] = true;
+      }
     }
 
     /**
@@ -447,6 +478,46 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
       return this;
     }
 
+    /**
+      * Gets the value of the 'keywords' field.
+      * @return The value.
+      */
+    public java.util.List<java.lang.String> getKeywords() {
+      return keywords;
+    }
+
+
+    /**
+      * Sets the value of the 'keywords' field.
+      * @param value The value of 'keywords'.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder setKeywords(java.util.List<java.lang.String> value) {
+      validate(fields()[4], value);
+      this.keywords = value;
+      fieldSetFlags()[4] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'keywords' field has been set.
+      * @return True if the 'keywords' field has been set, false otherwise.
+      */
+    public boolean hasKeywords() {
+      return fieldSetFlags()[4];
+    }
+
+
+    /**
+      * Clears the value of the 'keywords' field.
+      * @return This builder.
+      */
+    public com.microservices.demo.kafka.avro.model.TwitterAvroModel.Builder clearKeywords() {
+      keywords = null;
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public TwitterAvroModel build() {
@@ -456,6 +527,7 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         record.id = fieldSetFlags()[1] ? this.id : (java.lang.Long) defaultValue(fields()[1]);
         record.text = fieldSetFlags()[2] ? this.text : (java.lang.String) defaultValue(fields()[2]);
         record.createdAt = fieldSetFlags()[3] ? this.createdAt : (java.lang.Long) defaultValue(fields()[3]);
+        record.keywords = fieldSetFlags()[4] ? this.keywords : (java.util.List<java.lang.String>) defaultValue(fields()[4]);
         return record;
       } catch (org.apache.avro.AvroMissingFieldException e) {
         throw e;
@@ -508,6 +580,19 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
       out.writeLong(this.createdAt);
     }
 
+    long size0 = this.keywords.size();
+    out.writeArrayStart();
+    out.setItemCount(size0);
+    long actualSize0 = 0;
+    for (java.lang.String e0: this.keywords) {
+      actualSize0++;
+      out.startItem();
+      out.writeString(e0);
+    }
+    out.writeArrayEnd();
+    if (actualSize0 != size0)
+      throw new java.util.ConcurrentModificationException("Array-size written was " + size0 + ", but element count was " + actualSize0 + ".");
+
   }
 
   @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
@@ -533,8 +618,23 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         this.createdAt = in.readLong();
       }
 
+      long size0 = in.readArrayStart();
+      java.util.List<java.lang.String> a0 = this.keywords;
+      if (a0 == null) {
+        a0 = new SpecificData.Array<java.lang.String>((int)size0, SCHEMA$.getField("keywords").schema());
+        this.keywords = a0;
+      } else a0.clear();
+      SpecificData.Array<java.lang.String> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<java.lang.String>)a0 : null);
+      for ( ; 0 < size0; size0 = in.arrayNext()) {
+        for ( ; size0 != 0; size0--) {
+          java.lang.String e0 = (ga0 != null ? ga0.peek() : null);
+          e0 = in.readString();
+          a0.add(e0);
+        }
+      }
+
     } else {
-      for (int i = 0; i < 4; i++) {
+      for (int i = 0; i < 5; i++) {
         switch (fieldOrder[i].pos()) {
         case 0:
           this.userId = in.readLong();
@@ -562,6 +662,23 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
           }
           break;
 
+        case 4:
+          long size0 = in.readArrayStart();
+          java.util.List<java.lang.String> a0 = this.keywords;
+          if (a0 == null) {
+            a0 = new SpecificData.Array<java.lang.String>((int)size0, SCHEMA$.getField("keywords").schema());
+            this.keywords = a0;
+          } else a0.clear();
+          SpecificData.Array<java.lang.String> ga0 = (a0 instanceof SpecificData.Array ? (SpecificData.Array<java.lang.String>)a0 : null);
+          for ( ; 0 < size0; size0 = in.arrayNext()) {
+            for ( ; size0 != 0; size0--) {
+              java.lang.String e0 = (ga0 != null ? ga0.peek() : null);
+              e0 = in.readString();
+              a0.add(e0);
+            }
+          }
+          break;
+
         default:
           throw new java.io.IOException("Corrupt ResolvingDecoder.");
         }
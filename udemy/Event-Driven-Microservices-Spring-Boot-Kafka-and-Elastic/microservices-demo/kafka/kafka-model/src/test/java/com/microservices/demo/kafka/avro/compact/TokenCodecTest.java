@@ -0,0 +1,95 @@
+package com.microservices.demo.kafka.avro.compact;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.avro.model.TwitterCompactAvroModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TokenCodecTest {
+
+    private final TokenDictionary dictionary = TokenDictionary.load(1);
+
+    @Test
+    public void dictionaryTokenTakesOneByte() {
+        assertThat(dictionary.idOf("Kafka")).isPositive();
+        assertThat(TokenCodec.encodeText("Kafka", dictionary).remaining()).isEqualTo(1);
+    }
+
+    @Test
+    public void decodesExactlyTheEncodedText() {
+        for (String text : List.of("", " ", "Lorem ipsum Kafka", "  leading and trailing  ", "Kafka  Kafka",
+                "unknown w\u00f6rds and emoji \ud83d\ude80 mixed with Java")) {
+            ByteBuffer encoded = TokenCodec.encodeText(text, dictionary);
+
+            assertThat(TokenCodec.decodeText(encoded, dictionary)).isEqualTo(text);
+        }
+    }
+
+    @Test
+    public void decodingLeavesBufferPositionUnchanged() {
+        ByteBuffer encoded = TokenCodec.encodeText("Lorem literal", dictionary);
+
+        TokenCodec.decodeText(encoded, dictionary);
+
+        assertThat(TokenCodec.decodeText(encoded, dictionary)).isEqualTo("Lorem literal");
+    }
+
+    @Test
+    public void decodesKeywordTokens() {
+        List<String> keywords = List.of("Java", "Spring Boot", "", "Kafka");
+
+        assertThat(TokenCodec.decodeTokens(TokenCodec.encodeTokens(keywords, dictionary), dictionary))
+                .isEqualTo(keywords);
+    }
+
+    @Test
+    public void rejectsTruncatedLiteral() {
+        ByteBuffer encoded = TokenCodec.encodeText("literal", dictionary);
+        encoded.limit(encoded.limit() - 1);
+
+        assertThatThrownBy(() -> TokenCodec.decodeText(encoded, dictionary))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void builtDictionaryOrdersByFrequency() {
+        TokenDictionary built = TokenDictionary.build(2, List.of("b a c", "a b", "a"), 2);
+
+        assertThat(built.getTokens()).containsExactly("a", "b");
+        assertThat(built.idOf("c")).isZero();
+    }
+
+    @Test
+    public void convertsToCompactAndBack() {
+        TwitterAvroModel model = TwitterAvroModel.newBuilder()
+                .setId(1L)
+                .setUserId(2L)
+                .setText("Lorem ipsum Kafka dolor sit amet, nonexistent")
+                .setCreatedAt(3L)
+                .setKeywords(List.of("Kafka"))
+                .build();
+
+        TwitterCompactAvroModel compact = TwitterCompactAvroModels.toCompact(model, dictionary);
+
+        assertThat(compact.getDictionaryVersion()).isEqualTo(1);
+        assertThat(TwitterCompactAvroModels.fromCompact(compact)).isEqualTo(model);
+    }
+
+    @Test
+    public void convertsNullText() {
+        TwitterAvroModel model = TwitterAvroModel.newBuilder()
+                .setId(1L)
+                .setUserId(2L)
+                .setText(null)
+                .setCreatedAt(null)
+                .build();
+
+        assertThat(TwitterCompactAvroModels.fromCompact(TwitterCompactAvroModels.toCompact(model, dictionary)))
+                .isEqualTo(model);
+    }
+}
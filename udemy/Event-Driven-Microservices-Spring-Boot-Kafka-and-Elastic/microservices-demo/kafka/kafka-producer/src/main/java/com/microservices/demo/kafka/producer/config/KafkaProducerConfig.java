@@ -2,13 +2,17 @@ package com.microservices.demo.kafka.producer.config;
 
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.pool.ShardedProducerPool;
+import com.microservices.demo.kafka.producer.config.tuning.ReconfigurableProducerFactory;
+import com.microservices.demo.kafka.producer.partitioner.HeavyHitterPartitioner;
+import com.microservices.demo.kafka.producer.reactive.ReactiveKafkaSender;
+import com.microservices.demo.kafka.producer.serializer.TwitterAvroSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.core.ProducerFactory;
 
 import java.io.Serializable;
 import java.util.HashMap;
@@ -21,9 +25,14 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
 
     private final KafkaProducerConfigData kafkaProducerConfigData;
 
-    public KafkaProducerConfig(KafkaConfigData configData, KafkaProducerConfigData producerConfigData) {
+    private final MeterRegistry meterRegistry;
+
+    public KafkaProducerConfig(KafkaConfigData configData,
+                               KafkaProducerConfigData producerConfigData,
+                               MeterRegistry registry) {
         this.kafkaConfigData = configData;
         this.kafkaProducerConfigData = producerConfigData;
+        this.meterRegistry = registry;
     }
 
     @Bean
@@ -32,7 +41,9 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
         props.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, kafkaProducerConfigData.getKeySerializerClass());
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, kafkaProducerConfigData.getValueSerializerClass());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+                Boolean.TRUE.equals(kafkaProducerConfigData.getReusableAvroSerializerEnabled()) ?
+                        TwitterAvroSerializer.class.getName() : kafkaProducerConfigData.getValueSerializerClass());
         props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaProducerConfigData.getBatchSize() *
                 kafkaProducerConfigData.getBatchSizeBoostFactor());
         props.put(ProducerConfig.LINGER_MS_CONFIG, kafkaProducerConfigData.getLingerMs());
@@ -40,16 +51,70 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.ACKS_CONFIG, kafkaProducerConfigData.getAcks());
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProducerConfigData.getRequestTimeoutMs());
         props.put(ProducerConfig.RETRIES_CONFIG, kafkaProducerConfigData.getRetryCount());
+        if (isIdempotent()) {
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
+        if (Boolean.TRUE.equals(kafkaProducerConfigData.getSkewAwarePartitionerEnabled())) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, HeavyHitterPartitioner.class);
+            props.put(HeavyHitterPartitioner.THRESHOLD_CONFIG, kafkaProducerConfigData.getHeavyHitterThreshold());
+            props.put(HeavyHitterPartitioner.SPREAD_PARTITIONS_CONFIG,
+                    kafkaProducerConfigData.getHeavyHitterSpreadPartitions());
+            props.put(HeavyHitterPartitioner.SKETCH_WIDTH_CONFIG,
+                    kafkaProducerConfigData.getHeavyHitterSketchWidth());
+            props.put(HeavyHitterPartitioner.SKETCH_DEPTH_CONFIG,
+                    kafkaProducerConfigData.getHeavyHitterSketchDepth());
+            props.put(HeavyHitterPartitioner.DECAY_RECORDS_CONFIG,
+                    kafkaProducerConfigData.getHeavyHitterDecayRecords());
+            props.put(HeavyHitterPartitioner.METER_REGISTRY_CONFIG, meterRegistry);
+        }
         return props;
     }
 
+    /**
+     * With transactions enabled every producer gets a transactional id made of the configured prefix, the factory
+     * generation and a counter, and the kafka template only sends inside transactions. The adaptive tuner changes
+     * batch.size and linger.ms through this factory; every change starts a new generation, so the new producers do
+     * not fence the ones still committing.
+     */
     @Bean
-    public ProducerFactory<K, V> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfig());
+    public ReconfigurableProducerFactory<K, V> producerFactory() {
+        return new ReconfigurableProducerFactory<>(producerConfig(),
+                Boolean.TRUE.equals(kafkaProducerConfigData.getTransactionsEnabled()) ?
+                        kafkaProducerConfigData.getTransactionalIdPrefix() : null);
     }
 
     @Bean
     public KafkaTemplate<K, V> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    /**
+     * Producers the records are sharded across when producer-pool-size is above 1. The pool is not used with
+     * transactions, and batch.size and linger.ms of its producers are not adapted by the adaptive tuner.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardedProducerPool<K, V> producerPool() {
+        return new ShardedProducerPool<>(producerConfig(), kafkaProducerConfigData.getProducerPoolSize() == null ? 1 :
+                kafkaProducerConfigData.getProducerPoolSize());
+    }
+
+    /**
+     * Sender of the reactive pipeline. Its producer is only created on the first send, so the bean costs nothing
+     * while the listener pipeline is used.
+     */
+    @Bean(destroyMethod = "close")
+    public ReactiveKafkaSender<K, V> reactiveKafkaSender() {
+        return new ReactiveKafkaSender<>(producerConfig(), kafkaProducerConfigData.getReactiveMaxInFlight() == null ?
+                256 : kafkaProducerConfigData.getReactiveMaxInFlight());
+    }
+
+    /**
+     * Idempotence keeps broker side retries, e.g. after a request timeout, from writing a record twice. It requires
+     * acks=all, which overrides the configured acks. Transactions always imply idempotence.
+     */
+    private boolean isIdempotent() {
+        return Boolean.TRUE.equals(kafkaProducerConfigData.getEnableIdempotence()) ||
+                Boolean.TRUE.equals(kafkaProducerConfigData.getTransactionsEnabled());
+    }
 }
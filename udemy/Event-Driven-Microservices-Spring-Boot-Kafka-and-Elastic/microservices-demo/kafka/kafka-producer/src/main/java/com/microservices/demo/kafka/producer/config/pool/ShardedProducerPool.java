@@ -0,0 +1,113 @@
+package com.microservices.demo.kafka.producer.config.pool;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * N kafka producers, each with its own record accumulator and I/O sender thread, for hosts where a single producer's
+ * sender thread saturates before the network does. A size of 1 disables the pool and the kafka template's producer
+ * is used instead.
+ * <p>
+ * Keyed records go to the producer of shard murmur2(key) % size, so all records of a key are sent by the same producer
+ * and keep their order. The partition is left to that producer's configured partitioner, e.g. the skew-aware
+ * partitioner, so a partition may be written by several shards. Records without a key are spread round robin.
+ */
+public class ShardedProducerPool<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedProducerPool.class);
+
+    private static final String CLIENT_ID_PREFIX = "twitter-kafka-producer-shard-";
+
+    private final List<DefaultKafkaProducerFactory<K, V>> producerFactories;
+
+    private final Serializer<K> keySerializer;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    public ShardedProducerPool(Map<String, Object> producerConfig, int size) {
+        this.producerFactories = new ArrayList<>(size);
+        if (size <= 1) {
+            this.keySerializer = null;
+            return;
+        }
+        for (int shard = 0; shard < size; shard++) {
+            Map<String, Object> shardConfig = new HashMap<>(producerConfig);
+            shardConfig.put(ProducerConfig.CLIENT_ID_CONFIG, CLIENT_ID_PREFIX + shard);
+            producerFactories.add(new DefaultKafkaProducerFactory<>(shardConfig));
+        }
+        try {
+            this.keySerializer = Utils.newInstance(
+                    String.valueOf(producerConfig.get(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG)), Serializer.class);
+        } catch (ClassNotFoundException e) {
+            throw new KafkaException("Key serializer of the producer pool not found", e);
+        }
+        keySerializer.configure(producerConfig, true);
+        LOG.info("Sharding records across {} kafka producers by key", size);
+    }
+
+    public boolean isPooled() {
+        return !producerFactories.isEmpty();
+    }
+
+    public int size() {
+        return producerFactories.size();
+    }
+
+    /**
+     * Sends the record with the producer of its key's shard.
+     */
+    public Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+        int shard = record.key() != null ?
+                Utils.toPositive(Utils.murmur2(keySerializer.serialize(record.topic(), record.key()))) %
+                        producerFactories.size() :
+                Math.floorMod(nextShard.getAndIncrement(), producerFactories.size());
+        return producer(shard).send(record, callback);
+    }
+
+    /**
+     * Blocks until all records handed to any shard are sent or failed.
+     */
+    public void flush() {
+        for (int shard = 0; shard < producerFactories.size(); shard++) {
+            producer(shard).flush();
+        }
+    }
+
+    public List<Map<MetricName, ? extends Metric>> metrics() {
+        List<Map<MetricName, ? extends Metric>> metrics = new ArrayList<>(producerFactories.size());
+        for (int shard = 0; shard < producerFactories.size(); shard++) {
+            metrics.add(producer(shard).metrics());
+        }
+        return metrics;
+    }
+
+    public void close() {
+        producerFactories.forEach(DefaultKafkaProducerFactory::destroy);
+        if (keySerializer != null) {
+            keySerializer.close();
+        }
+    }
+
+    private Producer<K, V> producer(int shard) {
+        return producerFactories.get(shard).createProducer();
+    }
+}
@@ -0,0 +1,102 @@
+package com.microservices.demo.kafka.producer.config.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate outcome of a {@link KafkaProducer#sendAll} call: offset ranges written per partition and the records
+ * that could not be sent.
+ */
+public class BatchSendResult<V> {
+
+    private final String topicName;
+
+    private final Map<Integer, OffsetRange> offsetRanges;
+
+    private final List<Failure<V>> failures;
+
+    public BatchSendResult(String topicName, Map<Integer, OffsetRange> offsetRanges, List<Failure<V>> failures) {
+        this.topicName = topicName;
+        this.offsetRanges = Collections.unmodifiableMap(offsetRanges);
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public Map<Integer, OffsetRange> getOffsetRanges() {
+        return offsetRanges;
+    }
+
+    public List<Failure<V>> getFailures() {
+        return failures;
+    }
+
+    public long getSuccessCount() {
+        return offsetRanges.values().stream().mapToLong(OffsetRange::getCount).sum();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSendResult{topicName='" + topicName + "', offsetRanges=" + offsetRanges +
+                ", failures=" + failures.size() + "}";
+    }
+
+    public static class OffsetRange {
+
+        private final long firstOffset;
+
+        private final long lastOffset;
+
+        private final long count;
+
+        public OffsetRange(long firstOffset, long lastOffset, long count) {
+            this.firstOffset = firstOffset;
+            this.lastOffset = lastOffset;
+            this.count = count;
+        }
+
+        public long getFirstOffset() {
+            return firstOffset;
+        }
+
+        public long getLastOffset() {
+            return lastOffset;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + firstOffset + ".." + lastOffset + "]";
+        }
+    }
+
+    public static class Failure<V> {
+
+        private final V message;
+
+        private final Throwable cause;
+
+        public Failure(V message, Throwable cause) {
+            this.message = message;
+            this.cause = cause;
+        }
+
+        public V getMessage() {
+            return message;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+}
@@ -3,7 +3,29 @@ package com.microservices.demo.kafka.producer.config.service;
 import org.apache.avro.specific.SpecificRecordBase;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public interface KafkaProducer<K extends Serializable, V extends SpecificRecordBase> {
     void send(String topicName, K key, V message);
+
+    /**
+     * Sends all messages to the given topic, deriving each record key with the key mapper. The returned future
+     * completes once every record is either acknowledged or failed, it never completes exceptionally.
+     */
+    CompletableFuture<BatchSendResult<V>> sendAll(String topicName, List<V> messages,
+                                                  Function<? super V, ? extends K> keyMapper);
+
+    /**
+     * @return records handed to the producer that are neither acknowledged nor failed yet
+     */
+    long inFlightCount();
+
+    /**
+     * Blocks until every record handed to the producer is acknowledged or failed, or the timeout passed.
+     *
+     * @return records still in flight at the deadline
+     */
+    long flush(long timeoutMs);
 }
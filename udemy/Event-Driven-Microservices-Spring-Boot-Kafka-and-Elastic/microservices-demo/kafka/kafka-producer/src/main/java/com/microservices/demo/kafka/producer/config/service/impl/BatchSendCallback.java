@@ -0,0 +1,138 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects the producer callbacks of one batch into a single {@link BatchSendResult}. Offsets are accumulated in a
+ * primitive array indexed by partition, so a record costs one small callback object and no further allocation.
+ */
+final class BatchSendCallback<V> {
+
+    /**
+     * Notified on the producer I/O thread for every acknowledged record, with the time since it was handed to the
+     * producer, and for every failed record, on the sending thread if send itself threw.
+     */
+    interface AckListener<V> {
+        void onAck(V message, RecordMetadata metadata, long ackLatencyNanos);
+
+        void onError(V message, Throwable cause);
+    }
+
+    private static final int FIRST = 0;
+
+    private static final int LAST = 1;
+
+    private static final int COUNT = 2;
+
+    private final String topicName;
+
+    private final List<V> messages;
+
+    private final AckListener<V> ackListener;
+
+    private final CompletableFuture<BatchSendResult<V>> future = new CompletableFuture<>();
+
+    private final List<BatchSendResult.Failure<V>> failures = new ArrayList<>();
+
+    private long[] offsets = new long[0];
+
+    private int remaining;
+
+    BatchSendCallback(String topicName, List<V> messages, AckListener<V> ackListener) {
+        this.topicName = topicName;
+        this.messages = messages;
+        this.ackListener = ackListener;
+        this.remaining = messages.size();
+        if (remaining == 0) {
+            future.complete(new BatchSendResult<>(topicName, Map.of(), List.of()));
+        }
+    }
+
+    CompletableFuture<BatchSendResult<V>> future() {
+        return future;
+    }
+
+    Callback forRecord(int index) {
+        return new RecordCallback(index, System.nanoTime());
+    }
+
+    void failed(int index, Throwable cause) {
+        ackListener.onError(messages.get(index), cause);
+        onCompletion(index, null, cause);
+    }
+
+    /**
+     * Completes a record that was discarded without being sent, it is neither acknowledged nor failed.
+     */
+    void dropped(int index) {
+        onCompletion(index, null, null);
+    }
+
+    private synchronized void onCompletion(int index, RecordMetadata metadata, Throwable exception) {
+        if (exception != null) {
+            failures.add(new BatchSendResult.Failure<>(messages.get(index), exception));
+        } else if (metadata != null) {
+            recordOffset(metadata.partition(), metadata.offset());
+        }
+        if (--remaining == 0) {
+            future.complete(new BatchSendResult<>(topicName, offsetRanges(), failures));
+        }
+    }
+
+    private void recordOffset(int partition, long offset) {
+        int base = partition * 3;
+        if (base >= offsets.length) {
+            int oldLength = offsets.length;
+            offsets = Arrays.copyOf(offsets, base + 3);
+            for (int i = oldLength; i < offsets.length; i += 3) {
+                offsets[i + FIRST] = Long.MAX_VALUE;
+                offsets[i + LAST] = Long.MIN_VALUE;
+            }
+        }
+        offsets[base + FIRST] = Math.min(offsets[base + FIRST], offset);
+        offsets[base + LAST] = Math.max(offsets[base + LAST], offset);
+        offsets[base + COUNT]++;
+    }
+
+    private Map<Integer, BatchSendResult.OffsetRange> offsetRanges() {
+        Map<Integer, BatchSendResult.OffsetRange> ranges = new HashMap<>();
+        for (int base = 0; base < offsets.length; base += 3) {
+            if (offsets[base + COUNT] > 0) {
+                ranges.put(base / 3, new BatchSendResult.OffsetRange(offsets[base + FIRST], offsets[base + LAST],
+                        offsets[base + COUNT]));
+            }
+        }
+        return ranges;
+    }
+
+    private final class RecordCallback implements Callback {
+
+        private final int index;
+
+        private final long sendNanos;
+
+        private RecordCallback(int index, long sendNanos) {
+            this.index = index;
+            this.sendNanos = sendNanos;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            if (exception == null) {
+                ackListener.onAck(messages.get(index), metadata, System.nanoTime() - sendNanos);
+            } else {
+                ackListener.onError(messages.get(index), exception);
+            }
+            BatchSendCallback.this.onCompletion(index, metadata, exception);
+        }
+    }
+}
@@ -1,7 +1,21 @@
 package com.microservices.demo.kafka.producer.config.service.impl;
 
 import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import com.microservices.demo.kafka.producer.config.pool.ShardedProducerPool;
 import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.guard.ProducerGuard;
+import com.microservices.demo.kafka.producer.guard.ProducerGuardRejectedException;
+import com.microservices.demo.kafka.producer.logging.PipelineLogging;
+import com.microservices.demo.kafka.producer.logging.PipelineStageLog;
+import com.microservices.demo.kafka.producer.metrics.PartitionSendCounters;
+import com.microservices.demo.kafka.producer.metrics.PipelineStageTimers;
+import com.microservices.demo.kafka.producer.metrics.TimeToFirstRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +26,17 @@ import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroModel> {
@@ -20,16 +45,256 @@ public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroMode
 
     private KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
 
-    public TwitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> template) {
+    private final Timer enqueueTimer;
+
+    private final Timer ackTimer;
+
+    private final Timer endToEndLagTimer;
+
+    private final AtomicLong lastEndToEndLagMs = new AtomicLong();
+
+    private final AtomicLong inFlightCount = new AtomicLong();
+
+    private final PipelineStageLog sendLog;
+
+    private final PartitionSendCounters partitionSendCounters;
+
+    private final TimeToFirstRecord timeToFirstRecord;
+
+    private final ProducerGuard producerGuard;
+
+    private final ShardedProducerPool<Long, TwitterAvroModel> producerPool;
+
+    private final BatchSendCallback.AckListener<TwitterAvroModel> ackListener =
+            new BatchSendCallback.AckListener<>() {
+                @Override
+                public void onAck(TwitterAvroModel message, RecordMetadata metadata, long ackLatencyNanos) {
+                    TwitterKafkaProducer.this.onAck(message, metadata, ackLatencyNanos);
+                }
+
+                @Override
+                public void onError(TwitterAvroModel message, Throwable cause) {
+                    producerGuard.onOutcome(cause);
+                }
+            };
+
+    public TwitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> template,
+                                MeterRegistry meterRegistry,
+                                PipelineLogging pipelineLogging,
+                                TimeToFirstRecord firstRecord,
+                                ProducerGuard guard,
+                                ShardedProducerPool<Long, TwitterAvroModel> pool) {
         this.kafkaTemplate = template;
+        this.producerGuard = guard;
+        this.producerPool = pool;
+        this.sendLog = pipelineLogging.stage("send");
+        this.partitionSendCounters = new PartitionSendCounters(meterRegistry);
+        this.timeToFirstRecord = firstRecord;
+        this.enqueueTimer = PipelineStageTimers.stageTimer(meterRegistry, "enqueue",
+                "Time to hand a batch of records to the kafka producer");
+        this.ackTimer = PipelineStageTimers.stageTimer(meterRegistry, "ack",
+                "Time from handing a record to the kafka producer until the broker acknowledged it");
+        this.endToEndLagTimer = PipelineStageTimers.endToEndLagTimer(meterRegistry);
+        TimeGauge.builder(PipelineStageTimers.END_TO_END_LAG_TIMER_NAME + ".last", lastEndToEndLagMs,
+                TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Tweet creation to broker acknowledgement lag of the last acknowledged record")
+                .register(meterRegistry);
     }
 
     @Override
     public void send(String topicName, Long key, TwitterAvroModel message) {
-        LOG.info("Sending message='{}' to topic='{}'", message, topicName);
-        ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture =
-                kafkaTemplate.send(topicName, key, message);
-        addCallback(topicName, message, kafkaResultFuture);
+        if (producerGuard.tryAcquire(1) == 0) {
+            LOG.debug("Producer guard rejected message to topic='{}'", topicName);
+            producerGuard.rejected(Collections.singletonList(message)).forEach(failure -> {
+                sendLog.errors(1);
+                logSendFailure(topicName, message, failure.getCause());
+            });
+            return;
+        }
+        if (sendLog.isSampled()) {
+            LOG.info("Sending message='{}' to topic='{}'", message, topicName);
+        }
+        if (producerPool.isPooled() && !kafkaTemplate.isTransactional()) {
+            sendPermitted(topicName, Collections.singletonList(message), ignored -> key)
+                    .thenAccept(result -> result.getFailures().forEach(failure ->
+                            logSendFailure(topicName, message, failure.getCause())));
+            return;
+        }
+        long sendNanos = System.nanoTime();
+        inFlightCount.incrementAndGet();
+        ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture;
+        try {
+            kafkaResultFuture = kafkaTemplate.isTransactional() ?
+                    kafkaTemplate.executeInTransaction(operations -> operations.send(topicName, key, message)) :
+                    kafkaTemplate.send(topicName, key, message);
+        } catch (RuntimeException e) {
+            inFlightCount.decrementAndGet();
+            throw e;
+        }
+        addCallback(topicName, message, sendNanos, kafkaResultFuture);
+    }
+
+    /**
+     * With a transactional kafka template the batch is sent as one transaction, and the call blocks until the
+     * transaction is committed or aborted. Otherwise the records go to the producer pool, if it is enabled. Records
+     * past the ones the {@link ProducerGuard} lets through, and records after the breaker opened during the batch,
+     * are not sent, they are only reported as failures if the guard falls back to spilling.
+     */
+    @Override
+    public CompletableFuture<BatchSendResult<TwitterAvroModel>> sendAll(String topicName,
+                                                                         List<TwitterAvroModel> messages,
+                                                                         Function<? super TwitterAvroModel, ? extends Long> keyMapper) {
+        int permitted = producerGuard.tryAcquire(messages.size());
+        if (permitted == messages.size()) {
+            return sendPermitted(topicName, messages, keyMapper);
+        }
+        List<BatchSendResult.Failure<TwitterAvroModel>> rejected =
+                producerGuard.rejected(messages.subList(permitted, messages.size()));
+        if (!rejected.isEmpty()) {
+            sendLog.errors(rejected.size());
+        }
+        CompletableFuture<BatchSendResult<TwitterAvroModel>> sent = permitted == 0 ?
+                CompletableFuture.completedFuture(new BatchSendResult<>(topicName, Map.of(), List.of())) :
+                sendPermitted(topicName, messages.subList(0, permitted), keyMapper);
+        return rejected.isEmpty() ? sent : sent.thenApply(result -> {
+            List<BatchSendResult.Failure<TwitterAvroModel>> failures = new ArrayList<>(result.getFailures());
+            failures.addAll(rejected);
+            return new BatchSendResult<>(topicName, result.getOffsetRanges(), failures);
+        });
+    }
+
+    private CompletableFuture<BatchSendResult<TwitterAvroModel>> sendPermitted(
+            String topicName,
+            List<TwitterAvroModel> messages,
+            Function<? super TwitterAvroModel, ? extends Long> keyMapper) {
+        LOG.debug("Sending batch of {} message(s) to topic='{}'", messages.size(), topicName);
+        BatchSendCallback<TwitterAvroModel> batchCallback = new BatchSendCallback<>(topicName, messages, ackListener);
+        long enqueueStartNanos = System.nanoTime();
+        if (kafkaTemplate.isTransactional()) {
+            try {
+                kafkaTemplate.executeInTransaction(operations -> operations.execute(producer ->
+                        sendRecords(producer::send, topicName, messages, keyMapper, batchCallback)));
+            } catch (RuntimeException e) {
+                LOG.error("Transaction for batch of {} message(s) to topic='{}' aborted", messages.size(),
+                        topicName, e);
+                sendLog.errors(messages.size());
+                return CompletableFuture.completedFuture(abortedBatch(topicName, messages, e));
+            }
+        } else if (producerPool.isPooled()) {
+            sendRecords(producerPool::send, topicName, messages, keyMapper, batchCallback);
+        } else {
+            kafkaTemplate.execute(producer -> sendRecords(producer::send, topicName, messages, keyMapper,
+                    batchCallback));
+        }
+        enqueueTimer.record(System.nanoTime() - enqueueStartNanos, TimeUnit.NANOSECONDS);
+        if (sendLog.isSampled()) {
+            LOG.info("Sent batch of {} message(s) to topic='{}', first message='{}'",
+                    messages.size(), topicName, messages.isEmpty() ? null : messages.get(0));
+        }
+        return batchCallback.future().whenComplete((result, throwable) -> {
+            if (result != null && result.hasFailures()) {
+                sendLog.errors(result.getFailures().size());
+            }
+        });
+    }
+
+    private Void sendRecords(BiFunction<ProducerRecord<Long, TwitterAvroModel>, Callback, ?> producer,
+                             String topicName,
+                             List<TwitterAvroModel> messages,
+                             Function<? super TwitterAvroModel, ? extends Long> keyMapper,
+                             BatchSendCallback<TwitterAvroModel> batchCallback) {
+        for (int i = 0; i < messages.size(); i++) {
+            TwitterAvroModel message = messages.get(i);
+            if (producerGuard.isOpen()) {
+                ProducerGuardRejectedException rejection = producerGuard.rejectWhileOpen();
+                if (rejection != null) {
+                    batchCallback.failed(i, rejection);
+                } else {
+                    batchCallback.dropped(i);
+                }
+                continue;
+            }
+            Callback recordCallback = batchCallback.forRecord(i);
+            inFlightCount.incrementAndGet();
+            try {
+                producer.apply(new ProducerRecord<>(topicName, keyMapper.apply(message), message),
+                        (metadata, exception) -> {
+                            inFlightCount.decrementAndGet();
+                            recordCallback.onCompletion(metadata, exception);
+                        });
+            } catch (RuntimeException e) {
+                inFlightCount.decrementAndGet();
+                batchCallback.failed(i, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records of an aborted transaction may have been acknowledged already, but read_committed consumers never see
+     * them, so the whole batch is reported as failed.
+     */
+    private BatchSendResult<TwitterAvroModel> abortedBatch(String topicName, List<TwitterAvroModel> messages,
+                                                           Throwable cause) {
+        List<BatchSendResult.Failure<TwitterAvroModel>> failures = new ArrayList<>(messages.size());
+        messages.forEach(message -> failures.add(new BatchSendResult.Failure<>(message, cause)));
+        return new BatchSendResult<>(topicName, Map.of(), failures);
+    }
+
+    @Override
+    public long inFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * Kafka's flush has no timeout, so it runs on its own thread while the caller waits at most the timeout. Records
+     * still in flight after that fail when the producer is closed. Transactional batches are already flushed by
+     * their commit.
+     */
+    @Override
+    public long flush(long timeoutMs) {
+        if (kafkaTemplate.isTransactional() || inFlightCount.get() == 0) {
+            return inFlightCount.get();
+        }
+        CompletableFuture<Void> flushed = CompletableFuture.runAsync(() -> {
+            if (producerPool.isPooled()) {
+                producerPool.flush();
+            }
+            kafkaTemplate.flush();
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "kafka-producer-flush");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        try {
+            flushed.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warn("Kafka producer flush did not finish within {} ms", timeoutMs);
+        } catch (ExecutionException e) {
+            LOG.error("Error while flushing kafka producer", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return inFlightCount.get();
+    }
+
+    /**
+     * Records the outcome of a record that another sender built from the same producer config sent, e.g. the
+     * reactive pipeline. The outcome goes to the same producer guard, timers, partition counters and send stage log
+     * as the outcomes of records sent through this producer.
+     *
+     * @param metadata the metadata of an acknowledged record, null if it failed
+     * @param exception the failure, null if the record was acknowledged
+     */
+    public void recordOutcome(String topicName, TwitterAvroModel message, RecordMetadata metadata,
+                              Throwable exception, long ackLatencyNanos) {
+        if (exception == null) {
+            onAck(message, metadata, ackLatencyNanos);
+            return;
+        }
+        producerGuard.onOutcome(exception);
+        sendLog.errors(1);
+        logSendFailure(topicName, message, exception);
     }
 
     @PreDestroy
@@ -40,23 +305,54 @@ public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroMode
         }
     }
 
-    private void addCallback(String topicName, TwitterAvroModel message,
+    private void onAck(TwitterAvroModel message, RecordMetadata metadata, long ackLatencyNanos) {
+        producerGuard.onOutcome(null);
+        ackTimer.record(ackLatencyNanos, TimeUnit.NANOSECONDS);
+        sendLog.record(Math.max(metadata.serializedValueSize(), 0));
+        partitionSendCounters.increment(metadata.topic(), metadata.partition());
+        timeToFirstRecord.onRecordAcknowledged();
+        Long createdAt = message.getCreatedAt();
+        if (createdAt != null) {
+            long lagMs = System.currentTimeMillis() - createdAt;
+            endToEndLagTimer.record(lagMs, TimeUnit.MILLISECONDS);
+            lastEndToEndLagMs.set(lagMs);
+        }
+    }
+
+    /**
+     * Failures are counted in the send stage summary, only the first one of each summary interval is logged.
+     */
+    private void logSendFailure(String topicName, TwitterAvroModel message, Throwable cause) {
+        if (sendLog.isErrorSampled()) {
+            LOG.error("Error while sending tweet {} of user {} to topic {}, further errors until the next summary " +
+                    "are only counted", message.getId(), message.getUserId(), topicName, cause);
+        }
+    }
+
+    private void addCallback(String topicName, TwitterAvroModel message, long sendNanos,
                              ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture) {
         kafkaResultFuture.addCallback(new ListenableFutureCallback<>() {
             @Override
             public void onFailure(Throwable throwable) {
-                LOG.error("Error while sending message {} to topic {}", message.toString(), topicName, throwable);
+                inFlightCount.decrementAndGet();
+                producerGuard.onOutcome(throwable);
+                sendLog.errors(1);
+                logSendFailure(topicName, message, throwable);
             }
 
             @Override
             public void onSuccess(SendResult<Long, TwitterAvroModel> result) {
-                    RecordMetadata metadata = result.getRecordMetadata();
+                inFlightCount.decrementAndGet();
+                RecordMetadata metadata = result.getRecordMetadata();
+                onAck(message, metadata, System.nanoTime() - sendNanos);
+                if (LOG.isDebugEnabled()) {
                     LOG.debug("Received new metadata. Topic: {}; Partition {}; Offset {}; Timestamp {}, at time {}",
                             metadata.topic(),
                             metadata.partition(),
                             metadata.offset(),
                             metadata.timestamp(),
                             System.nanoTime());
+                }
             }
         });
     }
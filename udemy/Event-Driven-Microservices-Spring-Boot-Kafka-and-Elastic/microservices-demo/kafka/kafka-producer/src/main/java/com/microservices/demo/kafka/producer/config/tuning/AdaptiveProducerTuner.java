@@ -0,0 +1,159 @@
+package com.microservices.demo.kafka.producer.config.tuning;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically samples the producer metrics and moves batch.size and linger.ms within the configured bounds.
+ * <p>
+ * batch.size is doubled while batches leave full and halved while they stay mostly empty. linger.ms is set to the time
+ * a batch needs to fill at the observed send rate, or to the minimum when that would exceed the maximum, since waiting
+ * longer would only add latency at low rates. Changes are applied by swapping in a producer with the new configs. The
+ * old producer is closed one sampling interval later, which gives the records already handed to it time to be sent.
+ * Nothing references the tuner, so it is kept eager when lazy initialization is enabled.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "kafka-producer-config.adaptive-tuning-enabled", havingValue = "true")
+public class AdaptiveProducerTuner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveProducerTuner.class);
+
+    private static final double FULL_BATCH_RATIO = 0.9;
+
+    private static final double EMPTY_BATCH_RATIO = 0.25;
+
+    private static final double MIN_LINGER_CHANGE_RATIO = 0.2;
+
+    private final KafkaProducerConfigData kafkaProducerConfigData;
+
+    private final ReconfigurableProducerFactory<?, ?> producerFactory;
+
+    private final KafkaTemplate<?, ?> kafkaTemplate;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "adaptive-producer-tuner"));
+
+    private int batchSize;
+
+    private int lingerMs;
+
+    private DefaultKafkaProducerFactory<?, ?> replacedFactory;
+
+    public AdaptiveProducerTuner(KafkaProducerConfigData producerConfigData,
+                                 ReconfigurableProducerFactory<?, ?> factory,
+                                 KafkaTemplate<?, ?> template) {
+        this.kafkaProducerConfigData = producerConfigData;
+        this.producerFactory = factory;
+        this.kafkaTemplate = template;
+    }
+
+    @PostConstruct
+    public void start() {
+        batchSize = clamp(kafkaProducerConfigData.getBatchSize() * kafkaProducerConfigData.getBatchSizeBoostFactor(),
+                kafkaProducerConfigData.getAdaptiveMinBatchSize(), kafkaProducerConfigData.getAdaptiveMaxBatchSize());
+        lingerMs = clamp(kafkaProducerConfigData.getLingerMs(),
+                kafkaProducerConfigData.getAdaptiveMinLingerMs(), kafkaProducerConfigData.getAdaptiveMaxLingerMs());
+        long intervalMs = kafkaProducerConfigData.getAdaptiveTuningIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::tune, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        LOG.info("Adaptive producer tuning started with batch.size {} and linger.ms {}, sampling every {} ms",
+                batchSize, lingerMs, intervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        destroyReplacedFactory();
+    }
+
+    private void tune() {
+        destroyReplacedFactory();
+        try {
+            Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+            double sendRate = ProducerMetrics.value(metrics, "record-send-rate");
+            double batchSizeAvg = ProducerMetrics.value(metrics, "batch-size-avg");
+            double recordSizeAvg = ProducerMetrics.value(metrics, "record-size-avg");
+            double requestLatencyAvg = ProducerMetrics.value(metrics, "request-latency-avg");
+            if (!(sendRate > 0) || !(batchSizeAvg > 0) || !(recordSizeAvg > 0)) {
+                LOG.debug("Not enough producer traffic to tune batching parameters");
+                return;
+            }
+            int newBatchSize = nextBatchSize(batchSizeAvg);
+            int newLingerMs = nextLingerMs(sendRate, recordSizeAvg, newBatchSize);
+            if (newBatchSize != batchSize || newLingerMs != lingerMs) {
+                LOG.info("Tuning producer: batch.size {} -> {}, linger.ms {} -> {} (record-send-rate {}, " +
+                                "batch-size-avg {}, record-size-avg {}, request-latency-avg {} ms)",
+                        batchSize, newBatchSize, lingerMs, newLingerMs, round(sendRate), round(batchSizeAvg),
+                        round(recordSizeAvg), round(requestLatencyAvg));
+                apply(newBatchSize, newLingerMs);
+            }
+        } catch (Exception e) {
+            LOG.error("Error while tuning kafka producer batching parameters!", e);
+        }
+    }
+
+    private int nextBatchSize(double batchSizeAvg) {
+        double fillRatio = batchSizeAvg / batchSize;
+        if (fillRatio >= FULL_BATCH_RATIO) {
+            return clamp(batchSize * 2, kafkaProducerConfigData.getAdaptiveMinBatchSize(),
+                    kafkaProducerConfigData.getAdaptiveMaxBatchSize());
+        }
+        if (fillRatio < EMPTY_BATCH_RATIO) {
+            return clamp(batchSize / 2, kafkaProducerConfigData.getAdaptiveMinBatchSize(),
+                    kafkaProducerConfigData.getAdaptiveMaxBatchSize());
+        }
+        return batchSize;
+    }
+
+    private int nextLingerMs(double sendRate, double recordSizeAvg, int targetBatchSize) {
+        double fillTimeMs = targetBatchSize / recordSizeAvg / sendRate * 1000;
+        int newLingerMs = fillTimeMs > kafkaProducerConfigData.getAdaptiveMaxLingerMs() ?
+                kafkaProducerConfigData.getAdaptiveMinLingerMs() :
+                clamp((int) Math.ceil(fillTimeMs), kafkaProducerConfigData.getAdaptiveMinLingerMs(),
+                        kafkaProducerConfigData.getAdaptiveMaxLingerMs());
+        if (Math.abs(newLingerMs - lingerMs) < Math.max(1, lingerMs * MIN_LINGER_CHANGE_RATIO)) {
+            return lingerMs;
+        }
+        return newLingerMs;
+    }
+
+    private void apply(int newBatchSize, int newLingerMs) {
+        replacedFactory = producerFactory.reconfigure(Map.of(
+                ProducerConfig.BATCH_SIZE_CONFIG, newBatchSize,
+                ProducerConfig.LINGER_MS_CONFIG, newLingerMs));
+        batchSize = newBatchSize;
+        lingerMs = newLingerMs;
+    }
+
+    private synchronized void destroyReplacedFactory() {
+        if (replacedFactory != null) {
+            replacedFactory.destroy();
+            replacedFactory = null;
+        }
+    }
+
+    private int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private long round(double value) {
+        return Math.round(value);
+    }
+}
@@ -0,0 +1,120 @@
+package com.microservices.demo.kafka.producer.config.tuning;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Producer factory of the kafka template that can change producer configs at runtime. spring-kafka 2.6 has no way to
+ * update the configs of a {@link DefaultKafkaProducerFactory}, so {@link #reconfigure(Map)} builds a new factory with
+ * the changed configs and sends all later records through it. The replaced factory is returned to the caller, whose
+ * job is to destroy it once the records handed to its producer are sent.
+ * <p>
+ * Each factory generation gets its own transactional id prefix, the configured prefix followed by the generation and
+ * a dash. A new factory reusing the ids of the replaced one would fence its producers while they still commit their
+ * transactions.
+ */
+public class ReconfigurableProducerFactory<K, V> implements ProducerFactory<K, V>, DisposableBean {
+
+    private final String transactionIdPrefix;
+
+    private volatile DefaultKafkaProducerFactory<K, V> delegate;
+
+    private int generation;
+
+    public ReconfigurableProducerFactory(Map<String, Object> producerConfig, String transactionIdPrefix) {
+        this.transactionIdPrefix = transactionIdPrefix;
+        this.delegate = newFactory(producerConfig);
+    }
+
+    /**
+     * @return the factory used until now
+     */
+    public synchronized DefaultKafkaProducerFactory<K, V> reconfigure(Map<String, Object> changedConfigs) {
+        Map<String, Object> producerConfig = new HashMap<>(delegate.getConfigurationProperties());
+        producerConfig.putAll(changedConfigs);
+        DefaultKafkaProducerFactory<K, V> replaced = delegate;
+        delegate = newFactory(producerConfig);
+        return replaced;
+    }
+
+    @Override
+    public Producer<K, V> createProducer() {
+        return delegate.createProducer();
+    }
+
+    @Override
+    public Producer<K, V> createProducer(String txIdPrefix) {
+        return delegate.createProducer(txIdPrefix);
+    }
+
+    @Override
+    public Producer<K, V> createNonTransactionalProducer() {
+        return delegate.createNonTransactionalProducer();
+    }
+
+    @Override
+    public boolean transactionCapable() {
+        return transactionIdPrefix != null;
+    }
+
+    @Override
+    public String getTransactionIdPrefix() {
+        return transactionIdPrefix;
+    }
+
+    @Override
+    public void closeProducerFor(String transactionIdSuffix) {
+        delegate.closeProducerFor(transactionIdSuffix);
+    }
+
+    @Override
+    public void closeThreadBoundProducer() {
+        delegate.closeThreadBoundProducer();
+    }
+
+    @Override
+    public void reset() {
+        delegate.reset();
+    }
+
+    @Override
+    public Map<String, Object> getConfigurationProperties() {
+        return delegate.getConfigurationProperties();
+    }
+
+    @Override
+    public Supplier<Serializer<K>> getKeySerializerSupplier() {
+        return delegate.getKeySerializerSupplier();
+    }
+
+    @Override
+    public Supplier<Serializer<V>> getValueSerializerSupplier() {
+        return delegate.getValueSerializerSupplier();
+    }
+
+    @Override
+    public Duration getPhysicalCloseTimeout() {
+        return delegate.getPhysicalCloseTimeout();
+    }
+
+    @Override
+    public void destroy() {
+        delegate.destroy();
+    }
+
+    private DefaultKafkaProducerFactory<K, V> newFactory(Map<String, Object> producerConfig) {
+        DefaultKafkaProducerFactory<K, V> producerFactory = new DefaultKafkaProducerFactory<>(producerConfig);
+        if (transactionIdPrefix != null) {
+            producerFactory.setTransactionIdPrefix(transactionIdPrefix + generation++ + "-");
+        }
+        return producerFactory;
+    }
+}
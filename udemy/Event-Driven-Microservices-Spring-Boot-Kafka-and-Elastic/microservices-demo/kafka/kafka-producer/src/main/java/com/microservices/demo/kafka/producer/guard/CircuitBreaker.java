@@ -0,0 +1,189 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free circuit breaker over a sliding window of record outcomes.
+ * <p>
+ * While CLOSED all records pass. Once the window holds at least the minimum number of outcomes and the failure rate
+ * reaches the threshold, the breaker trips to OPEN and rejects everything for the open duration. It then lets a
+ * fixed number of trial records through in HALF_OPEN: the first failure opens it again, as many successes as trial
+ * records close it and clear the window.
+ * <p>
+ * The window is a ring of time buckets, counts of a bucket that is being recycled while another thread records into
+ * it can be off by a few records, which does not matter for a rate threshold. State and the time it was entered are
+ * packed into one long, so every transition is a single compare-and-set.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final State[] STATES = State.values();
+
+    private final double failureRateThreshold;
+
+    private final long minimumRecords;
+
+    private final long bucketMs;
+
+    private final long openMs;
+
+    private final int halfOpenRecords;
+
+    private final LongSupplier clockMs;
+
+    private final AtomicLongArray bucketEpochs;
+
+    private final AtomicLongArray successes;
+
+    private final AtomicLongArray failures;
+
+    private final AtomicLong stateAndSince;
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    public CircuitBreaker(double failureRateThreshold, long minimumRecords, long windowMs, int windowBuckets,
+                          long openMs, int halfOpenRecords, LongSupplier clockMs) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || windowBuckets <= 0 || windowMs < windowBuckets ||
+                halfOpenRecords <= 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker configuration");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumRecords = minimumRecords;
+        this.bucketMs = windowMs / windowBuckets;
+        this.openMs = openMs;
+        this.halfOpenRecords = halfOpenRecords;
+        this.clockMs = clockMs;
+        this.bucketEpochs = new AtomicLongArray(windowBuckets);
+        this.successes = new AtomicLongArray(windowBuckets);
+        this.failures = new AtomicLongArray(windowBuckets);
+        this.stateAndSince = new AtomicLong(pack(State.CLOSED, clockMs.getAsLong()));
+        clearWindow();
+    }
+
+    /**
+     * @return how many of the given records may be sent now, all of them while closed, none while open and at most
+     * the remaining trial records while half open
+     */
+    public int tryAcquire(int records) {
+        long current = stateAndSince.get();
+        switch (stateOf(current)) {
+            case CLOSED:
+                return records;
+            case OPEN:
+                if (clockMs.getAsLong() - sinceOf(current) < openMs) {
+                    return 0;
+                }
+                if (stateAndSince.compareAndSet(current, pack(State.HALF_OPEN, clockMs.getAsLong()))) {
+                    halfOpenSuccesses.set(0);
+                    halfOpenPermits.set(halfOpenRecords);
+                }
+                return tryAcquire(records);
+            default:
+                int permits;
+                do {
+                    permits = halfOpenPermits.get();
+                    if (permits <= 0) {
+                        return 0;
+                    }
+                } while (!halfOpenPermits.compareAndSet(permits, permits - Math.min(permits, records)));
+                return Math.min(permits, records);
+        }
+    }
+
+    /**
+     * Returns trial records acquired but not sent, e.g. because the rate limiter rejected them, so that the breaker
+     * does not wait for their outcome in HALF_OPEN.
+     */
+    public void release(int records) {
+        if (records > 0 && getState() == State.HALF_OPEN) {
+            halfOpenPermits.addAndGet(records);
+        }
+    }
+
+    public void onSuccess() {
+        bucket(successes);
+        long current = stateAndSince.get();
+        if (stateOf(current) == State.HALF_OPEN && halfOpenSuccesses.incrementAndGet() >= halfOpenRecords &&
+                stateAndSince.compareAndSet(current, pack(State.CLOSED, clockMs.getAsLong()))) {
+            clearWindow();
+        }
+    }
+
+    public void onFailure() {
+        bucket(failures);
+        long current = stateAndSince.get();
+        State state = stateOf(current);
+        if ((state == State.HALF_OPEN || (state == State.CLOSED && isFailureRateReached())) &&
+                stateAndSince.compareAndSet(current, pack(State.OPEN, clockMs.getAsLong()))) {
+            halfOpenPermits.set(0);
+        }
+    }
+
+    public State getState() {
+        return stateOf(stateAndSince.get());
+    }
+
+    /**
+     * @return failures divided by outcomes in the current window, 0 without outcomes
+     */
+    public double getFailureRate() {
+        long[] counts = windowCounts();
+        return counts[0] + counts[1] == 0 ? 0 : (double) counts[1] / (counts[0] + counts[1]);
+    }
+
+    private boolean isFailureRateReached() {
+        long[] counts = windowCounts();
+        long total = counts[0] + counts[1];
+        return total >= minimumRecords && counts[1] >= failureRateThreshold * total;
+    }
+
+    private long[] windowCounts() {
+        long oldestEpoch = clockMs.getAsLong() / bucketMs - bucketEpochs.length() + 1;
+        long successCount = 0;
+        long failureCount = 0;
+        for (int i = 0; i < bucketEpochs.length(); i++) {
+            if (bucketEpochs.get(i) >= oldestEpoch) {
+                successCount += successes.get(i);
+                failureCount += failures.get(i);
+            }
+        }
+        return new long[]{successCount, failureCount};
+    }
+
+    private void bucket(AtomicLongArray counts) {
+        long epoch = clockMs.getAsLong() / bucketMs;
+        int index = (int) (epoch % bucketEpochs.length());
+        long bucketEpoch = bucketEpochs.get(index);
+        if (bucketEpoch < epoch && bucketEpochs.compareAndSet(index, bucketEpoch, epoch)) {
+            successes.set(index, 0);
+            failures.set(index, 0);
+        }
+        counts.incrementAndGet(index);
+    }
+
+    private void clearWindow() {
+        for (int i = 0; i < bucketEpochs.length(); i++) {
+            bucketEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    private static long pack(State state, long sinceMs) {
+        return sinceMs << 2 | state.ordinal();
+    }
+
+    private static State stateOf(long packed) {
+        return STATES[(int) (packed & 3)];
+    }
+
+    private static long sinceOf(long packed) {
+        return packed >> 2;
+    }
+}
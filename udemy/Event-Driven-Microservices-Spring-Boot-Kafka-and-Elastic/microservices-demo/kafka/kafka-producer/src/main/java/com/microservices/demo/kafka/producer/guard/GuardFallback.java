@@ -0,0 +1,30 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import java.util.Locale;
+
+/**
+ * What {@link ProducerGuard} does with records it does not let through to the producer.
+ */
+public enum GuardFallback {
+    /**
+     * Fail the records with the retriable {@link ProducerGuardRejectedException}, which the spilling producer writes
+     * to its spill log for a later replay. Without spilling they are reported as failures of the send call.
+     */
+    SPILL,
+    /**
+     * Discard the records, they are only counted.
+     */
+    DROP,
+    /**
+     * Send the records anyway and only count them, to observe limits before enforcing them.
+     */
+    COUNT;
+
+    public static GuardFallback fromConfig(String value) {
+        try {
+            return GuardFallback.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown producer guard fallback " + value + "!", e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker and rate limiter in front of the kafka producer, both optional. Records are let through only while
+ * the breaker is not open and the rate limiter has tokens left; the rest go to the configured {@link GuardFallback}
+ * right away, so that a degraded broker does not block sender threads in send until max.block.ms.
+ * <p>
+ * Only retriable errors, like timeouts or unavailable leaders, count as failures for the breaker. Any other outcome
+ * shows that the broker answered.
+ */
+@Component
+public class ProducerGuard {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProducerGuard.class);
+
+    private static final String REJECTED_COUNTER_NAME = "twitter.kafka.guard.rejected";
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    private final GuardFallback fallback;
+
+    private final Counter circuitOpenCounter;
+
+    private final Counter rateLimitedCounter;
+
+    private final AtomicReference<CircuitBreaker.State> loggedState = new AtomicReference<>(
+            CircuitBreaker.State.CLOSED);
+
+    public ProducerGuard(KafkaProducerConfigData producerConfigData, MeterRegistry meterRegistry) {
+        this.circuitBreaker = Boolean.TRUE.equals(producerConfigData.getCircuitBreakerEnabled()) ?
+                new CircuitBreaker(producerConfigData.getCircuitBreakerFailureRateThreshold(),
+                        producerConfigData.getCircuitBreakerMinimumRecords(),
+                        producerConfigData.getCircuitBreakerWindowMs(),
+                        producerConfigData.getCircuitBreakerWindowBuckets(),
+                        producerConfigData.getCircuitBreakerOpenMs(),
+                        producerConfigData.getCircuitBreakerHalfOpenRecords(),
+                        System::currentTimeMillis) : null;
+        this.rateLimiter = Boolean.TRUE.equals(producerConfigData.getRateLimiterEnabled()) ?
+                new TokenBucketRateLimiter(producerConfigData.getRateLimiterRecordsPerSecond(),
+                        producerConfigData.getRateLimiterBurstRecords(), System::nanoTime) : null;
+        this.fallback = producerConfigData.getGuardFallback() == null ? GuardFallback.SPILL :
+                GuardFallback.fromConfig(producerConfigData.getGuardFallback());
+        String fallbackTag = fallback.name().toLowerCase(Locale.ROOT);
+        this.circuitOpenCounter = Counter.builder(REJECTED_COUNTER_NAME)
+                .description("Records the producer guard did not let through")
+                .tag("reason", "circuit_open")
+                .tag("fallback", fallbackTag)
+                .register(meterRegistry);
+        this.rateLimitedCounter = Counter.builder(REJECTED_COUNTER_NAME)
+                .description("Records the producer guard did not let through")
+                .tag("reason", "rate_limited")
+                .tag("fallback", fallbackTag)
+                .register(meterRegistry);
+        if (circuitBreaker != null) {
+            Gauge.builder("twitter.kafka.guard.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state, 0 closed, 1 open, 2 half open")
+                    .register(meterRegistry);
+            Gauge.builder("twitter.kafka.guard.circuit.failure.rate", circuitBreaker, CircuitBreaker::getFailureRate)
+                    .description("Share of retriable failures among the record outcomes in the breaker window")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return how many of the next records may be handed to the producer; the caller passes the rest to
+     * {@link #rejected}. With the count fallback always all records.
+     */
+    public int tryAcquire(int records) {
+        int permitted = circuitBreaker == null ? records : circuitBreaker.tryAcquire(records);
+        int limited = rateLimiter == null ? permitted : rateLimiter.tryAcquire(permitted);
+        if (circuitBreaker != null) {
+            circuitBreaker.release(permitted - limited);
+            logStateChange();
+        }
+        if (permitted < records) {
+            circuitOpenCounter.increment(records - permitted);
+        }
+        if (limited < permitted) {
+            rateLimitedCounter.increment(permitted - limited);
+        }
+        return fallback == GuardFallback.COUNT ? records : limited;
+    }
+
+    /**
+     * True while the breaker rejects records, so that the rest of a batch that is being sent fails fast.
+     */
+    public boolean isOpen() {
+        return circuitBreaker != null && fallback != GuardFallback.COUNT &&
+                circuitBreaker.getState() == CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Counts a record that fails fast because the breaker opened while its batch was being sent, and applies the
+     * same fallback as to records {@link #tryAcquire} did not let through.
+     *
+     * @return the failure to report for the record, null if it is dropped
+     */
+    public ProducerGuardRejectedException rejectWhileOpen() {
+        circuitOpenCounter.increment();
+        return fallback == GuardFallback.SPILL ? rejection() : null;
+    }
+
+    /**
+     * Records the outcome of a record handed to the producer, null for an acknowledged record.
+     */
+    public void onOutcome(Throwable exception) {
+        if (circuitBreaker == null || exception instanceof ProducerGuardRejectedException) {
+            return;
+        }
+        if (isRetriable(exception)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        logStateChange();
+    }
+
+    /**
+     * @return failures to report for records that were not let through, empty unless the fallback is spill
+     */
+    public <V> List<BatchSendResult.Failure<V>> rejected(List<V> messages) {
+        if (fallback != GuardFallback.SPILL || messages.isEmpty()) {
+            return List.of();
+        }
+        ProducerGuardRejectedException cause = rejection();
+        List<BatchSendResult.Failure<V>> failures = new ArrayList<>(messages.size());
+        messages.forEach(message -> failures.add(new BatchSendResult.Failure<>(message, cause)));
+        return failures;
+    }
+
+    public ProducerGuardRejectedException rejection() {
+        return new ProducerGuardRejectedException(circuitBreaker != null &&
+                circuitBreaker.getState() != CircuitBreaker.State.CLOSED ?
+                "Circuit breaker is " + circuitBreaker.getState() : "Producer rate limit reached");
+    }
+
+    private void logStateChange() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        CircuitBreaker.State previous = loggedState.get();
+        if (state != previous && loggedState.compareAndSet(previous, state)) {
+            LOG.warn("Producer circuit breaker changed from {} to {}, failure rate {}", previous, state,
+                    circuitBreaker.getFailureRate());
+        }
+    }
+
+    private static boolean isRetriable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
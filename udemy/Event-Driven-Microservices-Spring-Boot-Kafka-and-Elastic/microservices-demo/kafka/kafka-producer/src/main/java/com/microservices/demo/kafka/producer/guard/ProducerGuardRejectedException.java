@@ -0,0 +1,14 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import org.apache.kafka.common.errors.RetriableException;
+
+/**
+ * Cause of records the {@link ProducerGuard} did not hand to the producer. It is retriable, so spilled records are
+ * replayed once the guard lets records through again.
+ */
+public class ProducerGuardRejectedException extends RetriableException {
+
+    public ProducerGuardRejectedException(String message) {
+        super(message);
+    }
+}
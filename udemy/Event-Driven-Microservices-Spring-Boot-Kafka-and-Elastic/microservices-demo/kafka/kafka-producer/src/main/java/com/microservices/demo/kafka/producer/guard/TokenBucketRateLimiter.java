@@ -0,0 +1,55 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket that never waits. The bucket refills at the configured rate up to the burst size. Instead of
+ * a token count it keeps the time at which the bucket was empty, so refilling needs no timer and acquiring is one
+ * compare-and-set of that time.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long nanosPerPermit;
+
+    private final long burstNanos;
+
+    private final LongSupplier clockNanos;
+
+    private final AtomicLong emptyAtNanos;
+
+    public TokenBucketRateLimiter(long permitsPerSecond, long burstPermits, LongSupplier clockNanos) {
+        if (permitsPerSecond <= 0 || burstPermits <= 0) {
+            throw new IllegalArgumentException("Rate and burst of a rate limiter must be positive");
+        }
+        this.nanosPerPermit = Math.max(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond, 1);
+        this.burstNanos = burstPermits * nanosPerPermit;
+        this.clockNanos = clockNanos;
+        this.emptyAtNanos = new AtomicLong(clockNanos.getAsLong() - burstNanos);
+    }
+
+    /**
+     * @return how many of the requested permits were taken, between 0 and permits
+     */
+    public int tryAcquire(int permits) {
+        while (permits > 0) {
+            long now = clockNanos.getAsLong();
+            long emptyAt = emptyAtNanos.get();
+            long refilledFrom = Math.max(emptyAt, now - burstNanos);
+            int granted = (int) Math.min(permits, (now - refilledFrom) / nanosPerPermit);
+            if (granted == 0) {
+                return 0;
+            }
+            if (emptyAtNanos.compareAndSet(emptyAt, refilledFrom + granted * nanosPerPermit)) {
+                return granted;
+            }
+        }
+        return 0;
+    }
+
+    public long getAvailablePermits() {
+        long now = clockNanos.getAsLong();
+        return (now - Math.max(emptyAtNanos.get(), now - burstNanos)) / nanosPerPermit;
+    }
+}
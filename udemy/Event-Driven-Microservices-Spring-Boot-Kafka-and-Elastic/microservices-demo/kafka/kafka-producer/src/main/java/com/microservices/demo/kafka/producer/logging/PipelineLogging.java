@@ -0,0 +1,73 @@
+package com.microservices.demo.kafka.producer.logging;
+
+import com.microservices.demo.config.PipelineLoggingConfigData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces per record logging on the data path: every stage gets a {@link PipelineStageLog} whose count, bytes and
+ * errors are logged as one summary line per interval. Sample rates per stage come from
+ * pipeline-logging-config.sample-rates, a missing or 0 rate disables record sampling for that stage.
+ */
+@Component
+public class PipelineLogging {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PipelineLogging.class);
+
+    private final PipelineLoggingConfigData pipelineLoggingConfigData;
+
+    private final Map<String, PipelineStageLog> stageLogs = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pipeline-logging");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    public PipelineLogging(PipelineLoggingConfigData configData) {
+        this.pipelineLoggingConfigData = configData;
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMs = pipelineLoggingConfigData.getSummaryIntervalMs();
+        scheduler.scheduleAtFixedRate(this::logSummaries, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        logSummaries();
+    }
+
+    public PipelineStageLog stage(String stage) {
+        return stageLogs.computeIfAbsent(stage, name -> new PipelineStageLog(name, sampleRate(name)));
+    }
+
+    private int sampleRate(String stage) {
+        Map<String, Integer> sampleRates = pipelineLoggingConfigData.getSampleRates();
+        Integer sampleRate = sampleRates != null ? sampleRates.get(stage) : null;
+        return sampleRate != null ? sampleRate : 0;
+    }
+
+    private void logSummaries() {
+        long intervalMs = pipelineLoggingConfigData.getSummaryIntervalMs();
+        stageLogs.values().forEach(stageLog -> {
+            PipelineStageLog.Summary summary = stageLog.sumThenReset();
+            if (summary.count > 0 || summary.errors > 0) {
+                LOG.info("Stage {}: {} record(s), {} byte(s), {} error(s) in the last {} ms",
+                        stageLog.getStage(), summary.count, summary.bytes, summary.errors, intervalMs);
+            }
+        });
+    }
+}
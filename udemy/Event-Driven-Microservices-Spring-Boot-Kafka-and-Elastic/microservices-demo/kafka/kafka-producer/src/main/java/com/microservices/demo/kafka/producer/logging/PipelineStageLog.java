@@ -0,0 +1,103 @@
+package com.microservices.demo.kafka.producer.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per stage counters summarised periodically by {@link PipelineLogging}, plus a 1-in-N sampling decision for
+ * logging individual records. Hot path callers only touch striped counters; record details are only formatted when
+ * {@link #isSampled()} returns true.
+ */
+public class PipelineStageLog {
+
+    private final String stage;
+
+    private final int sampleRate;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final AtomicBoolean errorSampled = new AtomicBoolean();
+
+    PipelineStageLog(String stage, int sampleRate) {
+        this.stage = stage;
+        this.sampleRate = sampleRate;
+    }
+
+    public void record(long recordBytes) {
+        count.increment();
+        bytes.add(recordBytes);
+    }
+
+    public void errors(long errorCount) {
+        errors.add(errorCount);
+    }
+
+    /**
+     * @return true for roughly one in sample-rate calls, never if sampling is disabled for this stage
+     */
+    public boolean isSampled() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * @return true for the first error of each summary interval, so that a burst of failures logs one example next to
+     * its error count
+     */
+    public boolean isErrorSampled() {
+        return !errorSampled.get() && errorSampled.compareAndSet(false, true);
+    }
+
+    /**
+     * UTF-8 encoded length of the text, computed without encoding it. Unpaired surrogates count as the one byte
+     * replacement character the encoder writes for them.
+     */
+    public static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() &&
+                    Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    String getStage() {
+        return stage;
+    }
+
+    Summary sumThenReset() {
+        errorSampled.set(false);
+        return new Summary(count.sumThenReset(), bytes.sumThenReset(), errors.sumThenReset());
+    }
+
+    static final class Summary {
+
+        final long count;
+
+        final long bytes;
+
+        final long errors;
+
+        private Summary(long count, long bytes, long errors) {
+            this.count = count;
+            this.bytes = bytes;
+            this.errors = errors;
+        }
+    }
+}
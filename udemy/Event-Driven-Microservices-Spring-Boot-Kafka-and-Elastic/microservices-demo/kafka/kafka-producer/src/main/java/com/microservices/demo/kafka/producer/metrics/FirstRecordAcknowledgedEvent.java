@@ -0,0 +1,23 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published once, when the broker acknowledged the first record sent by this application.
+ */
+public class FirstRecordAcknowledgedEvent extends ApplicationEvent {
+
+    private final long timeToFirstRecordMs;
+
+    public FirstRecordAcknowledgedEvent(Object source, long timeToFirstRecordMs) {
+        super(source);
+        this.timeToFirstRecordMs = timeToFirstRecordMs;
+    }
+
+    /**
+     * @return milliseconds from JVM start until the first record was acknowledged
+     */
+    public long getTimeToFirstRecordMs() {
+        return timeToFirstRecordMs;
+    }
+}
@@ -0,0 +1,48 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acknowledged records per topic partition, the per partition send rate is the rate of these counters. Counters are
+ * registered on first use and looked up by partition index afterwards, so counting does not allocate.
+ */
+public class PartitionSendCounters {
+
+    public static final String PARTITION_RECORDS_COUNTER_NAME = "twitter.kafka.producer.partition.records";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter[]> countersByTopic = new ConcurrentHashMap<>();
+
+    public PartitionSendCounters(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void increment(String topicName, int partition) {
+        Counter[] counters = countersByTopic.get(topicName);
+        if (counters == null || partition >= counters.length || counters[partition] == null) {
+            counters = register(topicName, partition);
+        }
+        counters[partition].increment();
+    }
+
+    private synchronized Counter[] register(String topicName, int partition) {
+        Counter[] counters = countersByTopic.getOrDefault(topicName, new Counter[0]);
+        if (partition < counters.length && counters[partition] != null) {
+            return counters;
+        }
+        Counter[] registered = Arrays.copyOf(counters, Math.max(counters.length, partition + 1));
+        registered[partition] = Counter.builder(PARTITION_RECORDS_COUNTER_NAME)
+                .tag("topic", topicName)
+                .tag("partition", String.valueOf(partition))
+                .description("Records acknowledged by the broker per topic partition")
+                .register(meterRegistry);
+        countersByTopic.put(topicName, registered);
+        return registered;
+    }
+}
@@ -0,0 +1,37 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers of the twitter to kafka pipeline. Every stage is a tag of the same timer, so stages can be compared on one
+ * dashboard, and all of them publish p50/p99/p99.9 plus a percentile histogram.
+ */
+public final class PipelineStageTimers {
+
+    public static final String STAGE_TIMER_NAME = "twitter.pipeline.stage";
+
+    public static final String END_TO_END_LAG_TIMER_NAME = "twitter.pipeline.end.to.end.lag";
+
+    public static final String STAGE_TAG = "stage";
+
+    private PipelineStageTimers() {
+    }
+
+    public static Timer stageTimer(MeterRegistry meterRegistry, String stage, String description) {
+        return percentileTimer(Timer.builder(STAGE_TIMER_NAME).tag(STAGE_TAG, stage).description(description),
+                meterRegistry);
+    }
+
+    public static Timer endToEndLagTimer(MeterRegistry meterRegistry) {
+        return percentileTimer(Timer.builder(END_TO_END_LAG_TIMER_NAME)
+                .description("Time from tweet creation to broker acknowledgement"), meterRegistry);
+    }
+
+    private static Timer percentileTimer(Timer.Builder builder, MeterRegistry meterRegistry) {
+        return builder
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.pool.ShardedProducerPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the producer's record accumulator usage (buffer-total-bytes minus buffer-available-bytes) on a fixed
+ * interval, so that the data path can check how close send would be to blocking without walking the metrics map.
+ * With the producer pool enabled the fullest producer of the pool counts, since its shard blocks first.
+ */
+@Component
+public class ProducerBufferMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProducerBufferMonitor.class);
+
+    private final KafkaProducerConfigData kafkaProducerConfigData;
+
+    private final KafkaTemplate<?, ?> kafkaTemplate;
+
+    private final ShardedProducerPool<?, ?> producerPool;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "producer-buffer-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private volatile double bufferUtilisation;
+
+    public ProducerBufferMonitor(KafkaProducerConfigData producerConfigData,
+                                 KafkaTemplate<?, ?> template,
+                                 ShardedProducerPool<?, ?> pool,
+                                 MeterRegistry meterRegistry) {
+        this.kafkaProducerConfigData = producerConfigData;
+        this.kafkaTemplate = template;
+        this.producerPool = pool;
+        Gauge.builder("twitter.kafka.producer.buffer.utilisation", this, ProducerBufferMonitor::getBufferUtilisation)
+                .description("Share of the producer buffer memory taken by records waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMs = kafkaProducerConfigData.getBufferMonitorIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::sample, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return the last sampled share of buffer.memory in use, between 0 and 1
+     */
+    public double getBufferUtilisation() {
+        return bufferUtilisation;
+    }
+
+    private void sample() {
+        try {
+            List<Map<MetricName, ? extends Metric>> producerMetrics = producerPool.isPooled() ?
+                    producerPool.metrics() : List.of(kafkaTemplate.metrics());
+            double utilisation = -1;
+            for (Map<MetricName, ? extends Metric> metrics : producerMetrics) {
+                double totalBytes = ProducerMetrics.value(metrics, "buffer-total-bytes");
+                double availableBytes = ProducerMetrics.value(metrics, "buffer-available-bytes");
+                if (totalBytes > 0 && availableBytes >= 0) {
+                    utilisation = Math.max(utilisation, (totalBytes - availableBytes) / totalBytes);
+                }
+            }
+            if (utilisation >= 0) {
+                bufferUtilisation = Math.min(1.0, utilisation);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not sample producer buffer metrics", e);
+        }
+    }
+}
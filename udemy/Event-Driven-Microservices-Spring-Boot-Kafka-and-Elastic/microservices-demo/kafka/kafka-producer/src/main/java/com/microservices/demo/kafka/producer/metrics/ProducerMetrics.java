@@ -0,0 +1,31 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+
+import java.util.Map;
+
+/**
+ * Lookup of kafka client producer-metrics values, as returned by {@code KafkaTemplate.metrics()}.
+ */
+public final class ProducerMetrics {
+
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+    private ProducerMetrics() {
+    }
+
+    /**
+     * @return the value of the producer-metrics metric with the given name, NaN if it is missing or not numeric
+     */
+    public static double value(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (PRODUCER_METRICS_GROUP.equals(metricName.group()) && name.equals(metricName.name())) {
+                Object value = entry.getValue().metricValue();
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,49 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup metric: time from JVM start until the broker acknowledged the first record. Logged once, exposed as the
+ * twitter.startup.time.to.first.record gauge and published as a {@link FirstRecordAcknowledgedEvent}.
+ */
+@Component
+public class TimeToFirstRecord {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimeToFirstRecord.class);
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    private volatile long timeToFirstRecordMs = -1;
+
+    public TimeToFirstRecord(ApplicationEventPublisher publisher, MeterRegistry meterRegistry) {
+        this.applicationEventPublisher = publisher;
+        TimeGauge.builder("twitter.startup.time.to.first.record", this, TimeUnit.MILLISECONDS,
+                TimeToFirstRecord::getTimeToFirstRecordMs)
+                .description("Time from JVM start until the first record was acknowledged, -1 before that")
+                .register(meterRegistry);
+    }
+
+    public void onRecordAcknowledged() {
+        if (recorded.get() || !recorded.compareAndSet(false, true)) {
+            return;
+        }
+        timeToFirstRecordMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        LOG.info("Time to first record: {} ms after JVM start", timeToFirstRecordMs);
+        applicationEventPublisher.publishEvent(new FirstRecordAcknowledgedEvent(this, timeToFirstRecordMs));
+    }
+
+    public long getTimeToFirstRecordMs() {
+        return timeToFirstRecordMs;
+    }
+}
@@ -0,0 +1,69 @@
+package com.microservices.demo.kafka.producer.partitioner;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe count-min sketch over 64 bit hashes. Estimates never undercount, and overcount by at most
+ * e / width of the total count with probability 1 - e^-depth. {@link #halve()} ages all counters, so the sketch
+ * follows recent traffic instead of counting forever.
+ */
+public class CountMinSketch {
+
+    private final int width;
+
+    private final int depth;
+
+    private final AtomicLongArray counters;
+
+    private final AtomicLong total = new AtomicLong();
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Count-min sketch width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Counts one occurrence of the hash.
+     *
+     * @return the estimated count of the hash including this occurrence
+     */
+    public long add(long hash) {
+        total.incrementAndGet();
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = Math.floorMod(hash1 + row * hash2, width);
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + column));
+        }
+        return estimate;
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Halves the sketch unless another thread already did so since the total reached the limit.
+     */
+    public synchronized void halveIfTotalReaches(long limit) {
+        if (total.get() >= limit) {
+            halve();
+        }
+    }
+
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            long count;
+            do {
+                count = counters.get(i);
+            } while (!counters.compareAndSet(i, count, count >>> 1));
+        }
+        total.updateAndGet(count -> count >>> 1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.microservices.demo.kafka.producer.partitioner;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps keys on their murmur2 hash partition, like the default partitioner, except for heavy hitters: keys whose
+ * share of recently sent records, as estimated by a {@link CountMinSketch}, reaches the configured threshold. Records
+ * of a heavy hitter are spread randomly over spread-partitions consecutive partitions starting at its hash
+ * partition, so ordering per key is only kept for keys that are not heavy hitters. The sketch is halved every
+ * decay-records records, so keys stop being heavy hitters once their traffic drops. Records without a key go to the
+ * sticky partition of the default partitioner.
+ * <p>
+ * Configured through the producer properties, see the *_CONFIG constants. Records routed as heavy hitters are counted
+ * in the micrometer registry passed as {@link #METER_REGISTRY_CONFIG}, they are not counted without one.
+ */
+public class HeavyHitterPartitioner implements Partitioner {
+
+    public static final String THRESHOLD_CONFIG = "heavy.hitter.partitioner.threshold";
+
+    public static final String SPREAD_PARTITIONS_CONFIG = "heavy.hitter.partitioner.spread.partitions";
+
+    public static final String SKETCH_WIDTH_CONFIG = "heavy.hitter.partitioner.sketch.width";
+
+    public static final String SKETCH_DEPTH_CONFIG = "heavy.hitter.partitioner.sketch.depth";
+
+    public static final String DECAY_RECORDS_CONFIG = "heavy.hitter.partitioner.decay.records";
+
+    public static final String METER_REGISTRY_CONFIG = "heavy.hitter.partitioner.meter.registry";
+
+    private static final long MIN_HEAVY_HITTER_COUNT = 100;
+
+    private final DefaultPartitioner defaultPartitioner = new DefaultPartitioner();
+
+    private double threshold;
+
+    private int spreadPartitions;
+
+    private long decayRecords;
+
+    private CountMinSketch countMinSketch;
+
+    private Counter heavyHitterCounter;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        threshold = doubleConfig(configs, THRESHOLD_CONFIG, 0.01);
+        spreadPartitions = (int) doubleConfig(configs, SPREAD_PARTITIONS_CONFIG, 4);
+        decayRecords = (long) doubleConfig(configs, DECAY_RECORDS_CONFIG, 100_000);
+        countMinSketch = new CountMinSketch((int) doubleConfig(configs, SKETCH_WIDTH_CONFIG, 2048),
+                (int) doubleConfig(configs, SKETCH_DEPTH_CONFIG, 4));
+        Object meterRegistry = configs.get(METER_REGISTRY_CONFIG);
+        heavyHitterCounter = meterRegistry instanceof MeterRegistry ?
+                Counter.builder("twitter.kafka.producer.heavy.hitter.records")
+                        .description("Records spread over several partitions because their key is a heavy hitter")
+                        .register((MeterRegistry) meterRegistry) : null;
+        defaultPartitioner.configure(configs);
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+                         Cluster cluster) {
+        if (keyBytes == null) {
+            return defaultPartitioner.partition(topic, null, null, value, valueBytes, cluster);
+        }
+        List<PartitionInfo> partitions = cluster.partitionsForTopic(topic);
+        int partitionCount = partitions.size();
+        int hash = Utils.murmur2(keyBytes);
+        int hashPartition = Utils.toPositive(hash) % partitionCount;
+        long estimate = countMinSketch.add(mix(hash));
+        long total = countMinSketch.getTotal();
+        if (total >= decayRecords) {
+            countMinSketch.halveIfTotalReaches(decayRecords);
+        }
+        int spread = Math.min(spreadPartitions, partitionCount);
+        if (spread <= 1 || estimate < MIN_HEAVY_HITTER_COUNT || estimate < threshold * total) {
+            return hashPartition;
+        }
+        if (heavyHitterCounter != null) {
+            heavyHitterCounter.increment();
+        }
+        return (hashPartition + ThreadLocalRandom.current().nextInt(spread)) % partitionCount;
+    }
+
+    /**
+     * Lets the default partitioner move the sticky partition of records without a key once its batch is full.
+     */
+    @Override
+    public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+        defaultPartitioner.onNewBatch(topic, cluster, prevPartition);
+    }
+
+    @Override
+    public void close() {
+        defaultPartitioner.close();
+    }
+
+    private static long mix(int hash) {
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private static double doubleConfig(Map<String, ?> configs, String name, double defaultValue) {
+        Object value = configs.get(name);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value != null ? Double.parseDouble(value.toString()) : defaultValue;
+    }
+}
@@ -0,0 +1,74 @@
+package com.microservices.demo.kafka.producer.reactive;
+
+import org.apache.avro.specific.SpecificRecordBase;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reactor kafka sender for pipelines that model the tweet flow as a {@link Flux}. At most max-in-flight records are
+ * requested from upstream before they are acknowledged, so a slow broker slows down the source instead of filling
+ * the producer buffer. Failed records are reported in their result and do not end the flux.
+ */
+public class ReactiveKafkaSender<K extends Serializable, V extends SpecificRecordBase> {
+
+    private final KafkaSender<K, V> kafkaSender;
+
+    private volatile boolean used;
+
+    public ReactiveKafkaSender(Map<String, Object> producerConfig, int maxInFlight) {
+        this.kafkaSender = KafkaSender.create(SenderOptions.<K, V>create(producerConfig)
+                .maxInFlight(maxInFlight)
+                .stopOnError(false));
+    }
+
+    /**
+     * Sends every message to the topic the topic mapper picks, deriving each record key with the key mapper. The
+     * message is the correlation metadata of its result, which also carries the ack latency of the record.
+     */
+    public Flux<ReactiveSendResult<V>> send(Flux<V> messages, Function<? super V, String> topicMapper,
+                                            Function<? super V, ? extends K> keyMapper) {
+        used = true;
+        return kafkaSender.send(messages.map(message -> SenderRecord.create(topicMapper.apply(message), null, null,
+                keyMapper.apply(message), message, new Sent<>(message, System.nanoTime()))))
+                .map(result -> new ReactiveSendResult<>(result.recordMetadata(), result.exception(),
+                        result.correlationMetadata().message,
+                        System.nanoTime() - result.correlationMetadata().sendNanos));
+    }
+
+    public void close() {
+        kafkaSender.close();
+    }
+
+    /**
+     * Closes the producer, waiting at most the timeout for records in flight; records still unacknowledged then
+     * fail. {@link #close()} alone waits for them without limit.
+     */
+    public void close(Duration timeout) {
+        if (used) {
+            kafkaSender.doOnProducer(producer -> {
+                producer.close(timeout);
+                return true;
+            }).block();
+        }
+        close();
+    }
+
+    private static final class Sent<V> {
+
+        private final V message;
+
+        private final long sendNanos;
+
+        private Sent(V message, long sendNanos) {
+            this.message = message;
+            this.sendNanos = sendNanos;
+        }
+    }
+}
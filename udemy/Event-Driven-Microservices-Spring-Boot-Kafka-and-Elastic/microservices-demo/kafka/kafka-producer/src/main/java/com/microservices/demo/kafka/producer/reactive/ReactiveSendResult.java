@@ -0,0 +1,48 @@
+package com.microservices.demo.kafka.producer.reactive;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+import reactor.kafka.sender.SenderResult;
+
+/**
+ * Result of a record sent by {@link ReactiveKafkaSender}, with the time from handing the record to the producer until
+ * it was acknowledged or failed.
+ */
+public final class ReactiveSendResult<V> implements SenderResult<V> {
+
+    private final RecordMetadata recordMetadata;
+
+    private final Exception exception;
+
+    private final V message;
+
+    private final long ackLatencyNanos;
+
+    ReactiveSendResult(RecordMetadata recordMetadata, Exception exception, V message, long ackLatencyNanos) {
+        this.recordMetadata = recordMetadata;
+        this.exception = exception;
+        this.message = message;
+        this.ackLatencyNanos = ackLatencyNanos;
+    }
+
+    @Override
+    public RecordMetadata recordMetadata() {
+        return recordMetadata;
+    }
+
+    @Override
+    public Exception exception() {
+        return exception;
+    }
+
+    /**
+     * @return the sent message
+     */
+    @Override
+    public V correlationMetadata() {
+        return message;
+    }
+
+    public long getAckLatencyNanos() {
+        return ackLatencyNanos;
+    }
+}
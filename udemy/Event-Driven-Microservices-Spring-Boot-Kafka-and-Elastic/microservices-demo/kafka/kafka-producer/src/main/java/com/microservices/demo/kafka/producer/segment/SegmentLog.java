@@ -0,0 +1,366 @@
+package com.microservices.demo.kafka.producer.segment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Append-only log of opaque records stored in fixed size, memory-mapped segment files.
+ * <p>
+ * Each record is a 4 byte length followed by its payload. The length is written after the payload, so that a record
+ * torn by a crash reads as the end of the segment. Consumed records get their length negated, and a
+ * segment file is deleted once all its records are consumed and writing has moved on to a newer segment. Appended
+ * records survive a process crash; they survive an operating system crash once {@link #force} wrote them to disk.
+ * Commits and close force the log themselves. Disk usage is bounded by segment size times the maximum number of
+ * segments, {@link #append} returns false when the log is full.
+ * <p>
+ * Both the producer spill and the tweet capture files of twitter-to-kafka-service are segment logs, so a change of
+ * the file format must stay readable by both.
+ */
+public class SegmentLog implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private static final Method INVOKE_CLEANER;
+
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Segments cannot be unmapped explicitly, they are unmapped when garbage collected", e);
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final Path directory;
+
+    private final int segmentSizeBytes;
+
+    private final int maxSegments;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private long pendingRecords;
+
+    private long pendingBytes;
+
+    private boolean closed;
+
+    public SegmentLog(Path directory, int segmentSizeBytes, int maxSegments) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.maxSegments = maxSegments;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open segment log in " + directory, e);
+        }
+    }
+
+    /**
+     * @return false if the record does not fit into a segment or the log already uses all its segments
+     */
+    public synchronized boolean append(ByteBuffer payload) {
+        if (closed) {
+            throw new IllegalStateException("Segment log in " + directory + " is closed");
+        }
+        if (!payload.hasRemaining()) {
+            throw new IllegalArgumentException("Empty records cannot be appended to the segment log");
+        }
+        int recordBytes = LENGTH_BYTES + payload.remaining();
+        if (recordBytes > segmentSizeBytes) {
+            LOG.warn("Record of {} bytes does not fit into a segment of {} bytes", payload.remaining(),
+                    segmentSizeBytes);
+            return false;
+        }
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.writePosition + recordBytes > segmentSizeBytes) {
+            deleteConsumedSegments();
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            segment = openSegment(segment == null ? 0 : segment.id + 1);
+            segments.addLast(segment);
+        }
+        int position = segment.writePosition;
+        int length = payload.remaining();
+        ByteBuffer target = segment.buffer.duplicate();
+        target.position(position + LENGTH_BYTES);
+        target.put(payload);
+        segment.buffer.putInt(position, length);
+        segment.writePosition = position + recordBytes;
+        segment.dirty = true;
+        pendingRecords++;
+        pendingBytes += length;
+        return true;
+    }
+
+    /**
+     * Copies up to maxRecords of the oldest unconsumed records, without consuming them.
+     */
+    public synchronized List<ByteBuffer> peek(int maxRecords) {
+        List<ByteBuffer> records = new ArrayList<>((int) Math.min(maxRecords, pendingRecords));
+        for (Segment segment : segments) {
+            int position = segment.readPosition;
+            while (records.size() < maxRecords && position < segment.writePosition) {
+                ByteBuffer record = read(segment, position);
+                records.add(record);
+                position += LENGTH_BYTES + record.remaining();
+            }
+            if (records.size() == maxRecords) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @return a cursor over the unconsumed records, e.g. to read a log more than once
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Marks the given number of oldest records as consumed, deletes segments that no longer hold any records and
+     * forces the log.
+     */
+    public synchronized void commit(int records) {
+        int remaining = records;
+        for (Segment segment : segments) {
+            while (remaining > 0 && segment.readPosition < segment.writePosition) {
+                int length = segment.buffer.getInt(segment.readPosition);
+                segment.buffer.putInt(segment.readPosition, -length);
+                segment.readPosition += LENGTH_BYTES + length;
+                segment.dirty = true;
+                pendingRecords--;
+                pendingBytes -= length;
+                remaining--;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        deleteConsumedSegments();
+        force();
+    }
+
+    /**
+     * Writes the segments changed since the last force to disk.
+     */
+    public synchronized void force() {
+        for (Segment segment : segments) {
+            if (segment.dirty) {
+                segment.buffer.force();
+                segment.dirty = false;
+            }
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    public synchronized long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        force();
+        segments.forEach(segment -> unmap(segment.buffer));
+        segments.clear();
+        closed = true;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segmentFiles::add);
+        }
+        segmentFiles.sort(null);
+        for (Path segmentFile : segmentFiles) {
+            String fileName = segmentFile.getFileName().toString();
+            Segment segment = openSegment(Long.parseLong(fileName.substring(0, fileName.length() -
+                    SEGMENT_SUFFIX.length())));
+            scan(segment);
+            if (segment.readPosition == segment.writePosition) {
+                delete(segment);
+            } else {
+                segments.addLast(segment);
+            }
+        }
+        if (pendingRecords > 0) {
+            LOG.info("Recovered {} record(s) in {} segment(s) from {}", pendingRecords, segments.size(), directory);
+        }
+    }
+
+    private void scan(Segment segment) {
+        int position = 0;
+        boolean consumedPrefix = true;
+        while (position + LENGTH_BYTES <= segmentSizeBytes) {
+            int length = segment.buffer.getInt(position);
+            int payloadBytes = Math.abs(length);
+            if (length == 0 || position + LENGTH_BYTES + payloadBytes > segmentSizeBytes) {
+                break;
+            }
+            if (length < 0 && consumedPrefix) {
+                segment.readPosition = position + LENGTH_BYTES + payloadBytes;
+            } else {
+                consumedPrefix = false;
+                pendingRecords++;
+                pendingBytes += payloadBytes;
+            }
+            position += LENGTH_BYTES + payloadBytes;
+        }
+        segment.writePosition = position;
+    }
+
+    private ByteBuffer read(Segment segment, int position) {
+        int length = segment.buffer.getInt(position);
+        ByteBuffer source = segment.buffer.duplicate();
+        source.position(position + LENGTH_BYTES).limit(position + LENGTH_BYTES + length);
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        copy.put(source).flip();
+        return copy;
+    }
+
+    private Segment openSegment(long id) {
+        Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSizeBytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map segment " + path, e);
+        }
+    }
+
+    private void deleteConsumedSegments() {
+        while (segments.size() > 1 && segments.peekFirst().readPosition >= segments.peekFirst().writePosition) {
+            delete(segments.removeFirst());
+        }
+    }
+
+    private void delete(Segment segment) {
+        unmap(segment.buffer);
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            LOG.warn("Could not delete consumed segment {}", segment.path, e);
+        }
+    }
+
+    /**
+     * Releases the mapping right away instead of when the buffer is garbage collected, which for a large heap can be
+     * long after the segment file was deleted. The buffer must not be accessed afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Could not unmap segment, it is unmapped when garbage collected", e);
+        }
+    }
+
+    /**
+     * Reads records in append order without consuming them. Records appended after the cursor reached the end are
+     * returned by later calls, records consumed in the meantime are skipped.
+     */
+    public final class Cursor {
+
+        private long segmentId = -1;
+
+        private int position;
+
+        private Cursor() {
+        }
+
+        /**
+         * Copies up to maxRecords records following the ones this cursor already returned, an empty list at the end.
+         */
+        public List<ByteBuffer> next(int maxRecords) {
+            synchronized (SegmentLog.this) {
+                List<ByteBuffer> records = new ArrayList<>(Math.min(maxRecords, 1024));
+                for (Segment segment : segments) {
+                    if (segment.id < segmentId) {
+                        continue;
+                    }
+                    int readPosition = segment.id == segmentId ? Math.max(position, segment.readPosition) :
+                            segment.readPosition;
+                    while (records.size() < maxRecords && readPosition < segment.writePosition) {
+                        ByteBuffer record = read(segment, readPosition);
+                        records.add(record);
+                        readPosition += LENGTH_BYTES + record.remaining();
+                    }
+                    segmentId = segment.id;
+                    position = readPosition;
+                    if (records.size() == maxRecords) {
+                        break;
+                    }
+                }
+                return records;
+            }
+        }
+    }
+
+    private static final class Segment {
+
+        private final long id;
+
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        private int readPosition;
+
+        private int writePosition;
+
+        private boolean dirty;
+
+        private Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
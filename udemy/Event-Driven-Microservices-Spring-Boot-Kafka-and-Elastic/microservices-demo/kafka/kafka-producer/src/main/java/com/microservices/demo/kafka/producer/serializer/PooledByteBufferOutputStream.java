@@ -0,0 +1,53 @@
+package com.microservices.demo.kafka.producer.serializer;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable output stream over a single reusable heap {@link ByteBuffer}. The buffer is kept between uses, so once it
+ * has grown to the largest record size writing allocates nothing and only {@link #toByteArray()} copies.
+ */
+class PooledByteBufferOutputStream extends OutputStream {
+
+    private ByteBuffer buffer;
+
+    PooledByteBufferOutputStream(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        buffer.put(bytes, offset, length);
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void reset() {
+        buffer.clear();
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.remaining() < length) {
+            int newCapacity = Math.max(buffer.capacity() * 2, buffer.position() + length);
+            ByteBuffer grown = ByteBuffer.allocate(newCapacity);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.microservices.demo.kafka.producer.serializer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import io.confluent.kafka.serializers.subject.TopicNameStrategy;
+import io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schema registry wire compatible serializer for {@link TwitterAvroModel}, a drop-in replacement for the confluent
+ * KafkaAvroSerializer that the producer uses instead of value-serializer-class when reusable-avro-serializer-enabled
+ * is true. Encoder, datum writer and output buffer are reused per thread and the schema id is looked up once per
+ * topic, so a steady state call only allocates the returned byte array. Subjects are named by the configured key or
+ * value subject name strategy, like the confluent serializer does.
+ */
+public class TwitterAvroSerializer implements Serializer<TwitterAvroModel> {
+
+    private static final byte MAGIC_BYTE = 0x0;
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private static final ThreadLocal<SerializationContext> CONTEXT =
+            ThreadLocal.withInitial(SerializationContext::new);
+
+    private final Map<String, Integer> schemaIds = new ConcurrentHashMap<>();
+
+    private final AvroSchema schema = new AvroSchema(TwitterAvroModel.getClassSchema());
+
+    private SchemaRegistryClient schemaRegistryClient;
+
+    private boolean autoRegisterSchema = true;
+
+    private boolean isKey;
+
+    private SubjectNameStrategy subjectNameStrategy = new TopicNameStrategy();
+
+    public TwitterAvroSerializer() {
+    }
+
+    public TwitterAvroSerializer(SchemaRegistryClient client) {
+        this.schemaRegistryClient = client;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        this.isKey = isKey;
+        KafkaAvroSerializerConfig config = new KafkaAvroSerializerConfig(configs);
+        this.autoRegisterSchema = config.autoRegisterSchema();
+        Object configuredStrategy = isKey ? config.keySubjectNameStrategy() : config.valueSubjectNameStrategy();
+        if (!(configuredStrategy instanceof SubjectNameStrategy)) {
+            throw new ConfigException("Subject name strategy " + configuredStrategy.getClass().getName() +
+                    " is not a " + SubjectNameStrategy.class.getName());
+        }
+        this.subjectNameStrategy = (SubjectNameStrategy) configuredStrategy;
+        if (schemaRegistryClient == null) {
+            schemaRegistryClient = new CachedSchemaRegistryClient(config.getSchemaRegistryUrls(),
+                    config.getMaxSchemasPerSubject(), configs);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, TwitterAvroModel data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return CONTEXT.get().serialize(schemaId(topic), data);
+        } catch (IOException e) {
+            throw new SerializationException("Error serializing twitter avro model for topic " + topic, e);
+        }
+    }
+
+    private int schemaId(String topic) {
+        Integer schemaId = schemaIds.get(topic);
+        if (schemaId == null) {
+            schemaId = schemaIds.computeIfAbsent(topic, this::lookupSchemaId);
+        }
+        return schemaId;
+    }
+
+    private Integer lookupSchemaId(String topic) {
+        String subject = subjectNameStrategy.subjectName(topic, isKey, schema);
+        try {
+            return autoRegisterSchema ?
+                    schemaRegistryClient.register(subject, schema) :
+                    schemaRegistryClient.getId(subject, schema);
+        } catch (IOException | RestClientException e) {
+            throw new SerializationException("Error retrieving schema id for subject " + subject, e);
+        }
+    }
+
+    private static final class SerializationContext {
+
+        private final PooledByteBufferOutputStream out = new PooledByteBufferOutputStream(INITIAL_BUFFER_SIZE);
+
+        private final SpecificDatumWriter<TwitterAvroModel> writer =
+                new SpecificDatumWriter<>(TwitterAvroModel.getClassSchema());
+
+        private BinaryEncoder encoder;
+
+        private byte[] serialize(int schemaId, TwitterAvroModel data) throws IOException {
+            out.reset();
+            out.write(MAGIC_BYTE);
+            out.writeInt(schemaId);
+            encoder = EncoderFactory.get().directBinaryEncoder(out, encoder);
+            writer.write(data, encoder);
+            encoder.flush();
+            return out.toByteArray();
+        }
+    }
+}
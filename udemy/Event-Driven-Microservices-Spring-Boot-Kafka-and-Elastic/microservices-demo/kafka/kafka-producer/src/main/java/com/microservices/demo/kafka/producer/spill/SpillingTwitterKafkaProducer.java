@@ -0,0 +1,404 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.microservices.demo.kafka.producer.logging.PipelineLogging;
+import com.microservices.demo.kafka.producer.logging.PipelineStageLog;
+import com.microservices.demo.kafka.producer.metrics.ProducerBufferMonitor;
+import com.microservices.demo.kafka.producer.segment.SegmentLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Puts a disk-backed {@link SegmentLog} in front of {@link TwitterKafkaProducer}.
+ * <p>
+ * Records go to the spill log instead of the producer while the producer buffer is fuller than the configured
+ * threshold, so that sender threads do not block in send, and while the spill log still holds or is about to get
+ * records, so that ordering is kept. Records failing with a retriable error, e.g. because the broker is down, are
+ * spilled as well. All appends run on a single spill writer thread, which keeps them in order and off the kafka
+ * producer I/O thread; records already handed to the producer when a record fails can still overtake it.
+ * A replay thread sends spilled records through the producer in order once the buffer has room again, and only
+ * consumes the records up to the first one that failed with a retriable error, so records can be sent more than once
+ * but are not lost while the log has space. When the log is full records are reported as failures of the send call.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "kafka-producer-config.spill-enabled", havingValue = "true")
+public class SpillingTwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroModel> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillingTwitterKafkaProducer.class);
+
+    private static final long SPILL_WRITER_CLOSE_TIMEOUT_MS = 10_000;
+
+    private final TwitterKafkaProducer twitterKafkaProducer;
+
+    private final ProducerBufferMonitor producerBufferMonitor;
+
+    private final SegmentLog spillLog;
+
+    private final double bufferUtilisationThreshold;
+
+    private final int replayBatchSize;
+
+    private final long replayIntervalMs;
+
+    private final LongAdder spilledCount = new LongAdder();
+
+    private final LongAdder replayedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final PipelineStageLog spillStageLog;
+
+    private final ExecutorService spillExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "kafka-spill-writer"));
+
+    private final AtomicInteger pendingSpills = new AtomicInteger();
+
+    private ExecutorService replayExecutor;
+
+    private volatile boolean running;
+
+    public SpillingTwitterKafkaProducer(KafkaProducerConfigData producerConfigData,
+                                        TwitterKafkaProducer producer,
+                                        ProducerBufferMonitor bufferMonitor,
+                                        MeterRegistry meterRegistry,
+                                        PipelineLogging pipelineLogging) {
+        this.twitterKafkaProducer = producer;
+        this.producerBufferMonitor = bufferMonitor;
+        this.spillLog = new SegmentLog(Paths.get(producerConfigData.getSpillDirectory()),
+                producerConfigData.getSpillSegmentSizeBytes(), producerConfigData.getSpillMaxSegments());
+        this.bufferUtilisationThreshold = producerConfigData.getSpillBufferUtilisationThreshold();
+        this.replayBatchSize = producerConfigData.getSpillReplayBatchSize();
+        this.replayIntervalMs = producerConfigData.getSpillReplayIntervalMs();
+        this.spillStageLog = pipelineLogging.stage("spill");
+        FunctionCounter.builder("twitter.kafka.spill.spilled", spilledCount, LongAdder::sum)
+                .description("Records written to the local spill log")
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.kafka.spill.replayed", replayedCount, LongAdder::sum)
+                .description("Spilled records sent to kafka by the replay thread")
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.kafka.spill.rejected", rejectedCount, LongAdder::sum)
+                .description("Records that could not be spilled because the spill log was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.kafka.spill.failed", failedCount, LongAdder::sum)
+                .description("Records passed to send that were neither sent nor spilled")
+                .register(meterRegistry);
+        Gauge.builder("twitter.kafka.spill.pending", spillLog, SegmentLog::getPendingRecords)
+                .description("Records waiting in the local spill log")
+                .register(meterRegistry);
+        Gauge.builder("twitter.kafka.spill.pending.bytes", spillLog, SegmentLog::getPendingBytes)
+                .description("Bytes waiting in the local spill log")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        replayExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "kafka-spill-replay"));
+        replayExecutor.submit(this::replay);
+    }
+
+    /**
+     * Waits for the spill writer to append the records handed to it before closing the spill log.
+     */
+    @PreDestroy
+    public void stop() {
+        stopReplay();
+        spillExecutor.shutdown();
+        try {
+            if (!spillExecutor.awaitTermination(SPILL_WRITER_CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Spill writer did not finish within {} ms", SPILL_WRITER_CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Closing spill log with {} pending record(s)", spillLog.getPendingRecords());
+        spillLog.close();
+    }
+
+    @Override
+    public void send(String topicName, Long key, TwitterAvroModel message) {
+        sendAll(topicName, Collections.singletonList(message), ignored -> key).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                failed(topicName, message, throwable);
+                return;
+            }
+            result.getFailures().forEach(failure -> failed(topicName, failure.getMessage(), failure.getCause()));
+        });
+    }
+
+    private void failed(String topicName, TwitterAvroModel message, Throwable cause) {
+        failedCount.increment();
+        if (spillStageLog.isErrorSampled()) {
+            LOG.error("Tweet {} of user {} for topic {} was neither sent nor spilled", message.getId(),
+                    message.getUserId(), topicName, cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchSendResult<TwitterAvroModel>> sendAll(String topicName,
+                                                                         List<TwitterAvroModel> messages,
+                                                                         Function<? super TwitterAvroModel, ? extends Long> keyMapper) {
+        if (pendingSpills.get() > 0 || !spillLog.isEmpty() ||
+                producerBufferMonitor.getBufferUtilisation() >= bufferUtilisationThreshold) {
+            return spillAsync(topicName, messages, keyMapper)
+                    .thenApply(failures -> new BatchSendResult<>(topicName, Collections.emptyMap(), failures));
+        }
+        return twitterKafkaProducer.sendAll(topicName, messages, keyMapper)
+                .thenCompose(result -> result.hasFailures() ?
+                        spillRetriableFailures(result, keyMapper) : CompletableFuture.completedFuture(result));
+    }
+
+    private CompletableFuture<BatchSendResult<TwitterAvroModel>> spillRetriableFailures(
+            BatchSendResult<TwitterAvroModel> result,
+            Function<? super TwitterAvroModel, ? extends Long> keyMapper) {
+        List<BatchSendResult.Failure<TwitterAvroModel>> failures = new ArrayList<>();
+        List<TwitterAvroModel> retriable = new ArrayList<>();
+        for (BatchSendResult.Failure<TwitterAvroModel> failure : result.getFailures()) {
+            if (isRetriable(failure.getCause())) {
+                retriable.add(failure.getMessage());
+            } else {
+                failures.add(failure);
+            }
+        }
+        if (retriable.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return spillAsync(result.getTopicName(), retriable, keyMapper).thenApply(spillFailures -> {
+            failures.addAll(spillFailures);
+            return new BatchSendResult<>(result.getTopicName(), result.getOffsetRanges(), failures);
+        });
+    }
+
+    @Override
+    public long inFlightCount() {
+        return twitterKafkaProducer.inFlightCount();
+    }
+
+    /**
+     * Stops the replay first, so that it does not keep handing records to the producer being flushed. Records left
+     * in the spill log stay on disk and are replayed after the next start.
+     */
+    @Override
+    public long flush(long timeoutMs) {
+        stopReplay();
+        LOG.info("Flushing kafka producer, {} record(s) stay in the spill log", spillLog.getPendingRecords());
+        return twitterKafkaProducer.flush(timeoutMs);
+    }
+
+    private void stopReplay() {
+        running = false;
+        if (replayExecutor != null) {
+            replayExecutor.shutdownNow();
+            try {
+                replayExecutor.awaitTermination(replayIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Hands the records to the spill writer thread. Sends are routed to the spill log from now on until the records
+     * are appended, so that later records cannot overtake them.
+     */
+    private CompletableFuture<List<BatchSendResult.Failure<TwitterAvroModel>>> spillAsync(
+            String topicName,
+            List<TwitterAvroModel> messages,
+            Function<? super TwitterAvroModel, ? extends Long> keyMapper) {
+        pendingSpills.incrementAndGet();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return spill(topicName, messages, keyMapper);
+                } finally {
+                    pendingSpills.decrementAndGet();
+                }
+            }, spillExecutor);
+        } catch (RejectedExecutionException e) {
+            pendingSpills.decrementAndGet();
+            List<BatchSendResult.Failure<TwitterAvroModel>> failures = new ArrayList<>(messages.size());
+            messages.forEach(message -> failures.add(new BatchSendResult.Failure<>(message, e)));
+            spillStageLog.errors(failures.size());
+            return CompletableFuture.completedFuture(failures);
+        }
+    }
+
+    private List<BatchSendResult.Failure<TwitterAvroModel>> spill(String topicName,
+                                                                 List<TwitterAvroModel> messages,
+                                                                 Function<? super TwitterAvroModel, ? extends Long> keyMapper) {
+        List<BatchSendResult.Failure<TwitterAvroModel>> failures = new ArrayList<>(0);
+        for (TwitterAvroModel message : messages) {
+            try {
+                ByteBuffer payload = encode(topicName, keyMapper.apply(message), message);
+                int payloadBytes = payload.remaining();
+                if (spillLog.append(payload)) {
+                    spilledCount.increment();
+                    spillStageLog.record(payloadBytes);
+                    continue;
+                }
+                rejectedCount.increment();
+                failures.add(new BatchSendResult.Failure<>(message, new IllegalStateException("Spill log is full")));
+            } catch (IOException | RuntimeException e) {
+                failures.add(new BatchSendResult.Failure<>(message, e));
+            }
+        }
+        try {
+            spillLog.force();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not force spill log to disk", e);
+        }
+        if (!failures.isEmpty()) {
+            spillStageLog.errors(failures.size());
+        }
+        return failures;
+    }
+
+    private void replay() {
+        while (running) {
+            try {
+                if (spillLog.isEmpty() ||
+                        producerBufferMonitor.getBufferUtilisation() >= bufferUtilisationThreshold ||
+                        !replayBatch()) {
+                    Thread.sleep(replayIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Error while replaying spilled records!", e);
+            }
+        }
+    }
+
+    /**
+     * Consumes the replayed records up to the first one that failed with a retriable error. Unreadable records and
+     * records failing with a non retriable error are dropped.
+     *
+     * @return true if the whole batch was consumed from the spill log, false if the rest has to be retried later
+     */
+    private boolean replayBatch() {
+        List<ByteBuffer> payloads = spillLog.peek(replayBatchSize);
+        List<SpilledRecord> records = new ArrayList<>(payloads.size());
+        for (ByteBuffer payload : payloads) {
+            try {
+                records.add(decode(payload));
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Dropping unreadable spilled record", e);
+                records.add(null);
+            }
+        }
+        int start = 0;
+        while (start < records.size()) {
+            if (records.get(start) == null) {
+                start++;
+                continue;
+            }
+            String topicName = records.get(start).topicName;
+            int end = start;
+            Map<TwitterAvroModel, Long> keys = new IdentityHashMap<>();
+            List<TwitterAvroModel> messages = new ArrayList<>();
+            while (end < records.size() && records.get(end) != null && records.get(end).topicName.equals(topicName)) {
+                keys.put(records.get(end).message, records.get(end).key);
+                messages.add(records.get(end).message);
+                end++;
+            }
+            BatchSendResult<TwitterAvroModel> result =
+                    twitterKafkaProducer.sendAll(topicName, messages, keys::get).join();
+            Map<TwitterAvroModel, Throwable> failures = new IdentityHashMap<>();
+            result.getFailures().forEach(failure -> failures.put(failure.getMessage(), failure.getCause()));
+            for (int i = start; i < end; i++) {
+                Throwable cause = failures.get(records.get(i).message);
+                if (cause == null) {
+                    replayedCount.increment();
+                } else if (isRetriable(cause)) {
+                    LOG.warn("Replay of spilled records to topic {} failed, retrying in {} ms", topicName,
+                            replayIntervalMs);
+                    spillLog.commit(i);
+                    return false;
+                } else {
+                    LOG.error("Dropping spilled record for topic {} that cannot be sent", topicName, cause);
+                }
+            }
+            start = end;
+        }
+        spillLog.commit(payloads.size());
+        return true;
+    }
+
+    private boolean isRetriable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ByteBuffer encode(String topicName, Long key, TwitterAvroModel message) throws IOException {
+        byte[] topic = topicName.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer value = TwitterAvroModel.getEncoder().encode(message);
+        ByteBuffer payload = ByteBuffer.allocate(Short.BYTES + topic.length + 1 + Long.BYTES + value.remaining());
+        payload.putShort((short) topic.length).put(topic);
+        payload.put((byte) (key != null ? 1 : 0)).putLong(key != null ? key : 0L);
+        payload.put(value).flip();
+        return payload;
+    }
+
+    private SpilledRecord decode(ByteBuffer payload) throws IOException {
+        byte[] topic = new byte[payload.getShort()];
+        payload.get(topic);
+        boolean hasKey = payload.get() == 1;
+        long key = payload.getLong();
+        return new SpilledRecord(new String(topic, StandardCharsets.UTF_8), hasKey ? key : null,
+                TwitterAvroModel.getDecoder().decode(payload));
+    }
+
+    private static final class SpilledRecord {
+
+        private final String topicName;
+
+        private final Long key;
+
+        private final TwitterAvroModel message;
+
+        private SpilledRecord(String topicName, Long key, TwitterAvroModel message) {
+            this.topicName = topicName;
+            this.key = key;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+
+    private static final long WINDOW_MS = 10_000;
+
+    private static final long OPEN_MS = 5_000;
+
+    private final AtomicLong clockMs = new AtomicLong(1_000_000);
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(0.5, 10, WINDOW_MS, 10, OPEN_MS, 3,
+            clockMs::get);
+
+    @Test
+    public void staysClosedBelowMinimumRecords() {
+        for (int i = 0; i < 9; i++) {
+            circuitBreaker.onFailure();
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire(100)).isEqualTo(100);
+    }
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        recordOutcomes(5, 4);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        circuitBreaker.onFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire(100)).isZero();
+    }
+
+    @Test
+    public void forgetsOutcomesOutsideTheWindow() {
+        recordOutcomes(0, 9);
+        clockMs.addAndGet(WINDOW_MS);
+
+        circuitBreaker.onFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getFailureRate()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void closesAfterSuccessfulTrialRecords() {
+        recordOutcomes(0, 10);
+        clockMs.addAndGet(OPEN_MS);
+
+        assertThat(circuitBreaker.tryAcquire(100)).isEqualTo(3);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquire(100)).isZero();
+        recordOutcomes(3, 0);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    public void reopensOnTrialFailure() {
+        recordOutcomes(0, 10);
+        clockMs.addAndGet(OPEN_MS);
+        circuitBreaker.tryAcquire(100);
+
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clockMs.addAndGet(OPEN_MS - 1);
+        assertThat(circuitBreaker.tryAcquire(100)).isZero();
+    }
+
+    @Test
+    public void releasedTrialRecordsCanBeAcquiredAgain() {
+        recordOutcomes(0, 10);
+        clockMs.addAndGet(OPEN_MS);
+        assertThat(circuitBreaker.tryAcquire(2)).isEqualTo(2);
+
+        circuitBreaker.release(2);
+
+        assertThat(circuitBreaker.tryAcquire(100)).isEqualTo(3);
+    }
+
+    private void recordOutcomes(int successes, int failures) {
+        for (int i = 0; i < successes; i++) {
+            circuitBreaker.onSuccess();
+        }
+        for (int i = 0; i < failures; i++) {
+            circuitBreaker.onFailure();
+        }
+    }
+}
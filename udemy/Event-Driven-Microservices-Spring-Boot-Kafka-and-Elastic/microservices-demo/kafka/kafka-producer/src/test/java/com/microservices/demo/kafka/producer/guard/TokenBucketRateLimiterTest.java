@@ -0,0 +1,39 @@
+package com.microservices.demo.kafka.producer.guard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clockNanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, 100, clockNanos::get);
+
+    @Test
+    public void grantsAtMostTheBurst() {
+        assertThat(rateLimiter.tryAcquire(60)).isEqualTo(60);
+        assertThat(rateLimiter.tryAcquire(60)).isEqualTo(40);
+        assertThat(rateLimiter.tryAcquire(1)).isZero();
+    }
+
+    @Test
+    public void refillsAtTheConfiguredRate() {
+        rateLimiter.tryAcquire(100);
+
+        clockNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(25));
+
+        assertThat(rateLimiter.getAvailablePermits()).isEqualTo(25);
+        assertThat(rateLimiter.tryAcquire(100)).isEqualTo(25);
+    }
+
+    @Test
+    public void doesNotRefillBeyondTheBurst() {
+        clockNanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(rateLimiter.tryAcquire(1000)).isEqualTo(100);
+    }
+}
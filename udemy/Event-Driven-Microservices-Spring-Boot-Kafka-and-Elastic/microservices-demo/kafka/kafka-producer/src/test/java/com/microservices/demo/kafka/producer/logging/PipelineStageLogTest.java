@@ -0,0 +1,30 @@
+package com.microservices.demo.kafka.producer.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PipelineStageLogTest {
+
+    @Test
+    public void utf8LengthMatchesEncodedLength() {
+        for (String text : new String[]{"", "Kafka", "Gr\u00fc\u00dfe aus K\u00f6ln", "Elasticsearch \u691c\u7d22",
+                "Java \uD83D\uDE80 Kafka", "broken \uD83D surrogate"}) {
+            assertThat(PipelineStageLog.utf8Length(text)).as(text)
+                    .isEqualTo(text.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Test
+    public void samplesFirstErrorOfEachInterval() {
+        PipelineStageLog stageLog = new PipelineStageLog("send", 0);
+
+        assertThat(stageLog.isErrorSampled()).isTrue();
+        assertThat(stageLog.isErrorSampled()).isFalse();
+        stageLog.sumThenReset();
+
+        assertThat(stageLog.isErrorSampled()).isTrue();
+    }
+}
@@ -0,0 +1,116 @@
+package com.microservices.demo.kafka.producer.segment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SegmentLogTest {
+
+    private static final int SEGMENT_SIZE_BYTES = 100;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void returnsRecordsInAppendOrderUntilCommitted() {
+        SegmentLog segmentLog = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 4);
+        for (int i = 0; i < 20; i++) {
+            assertThat(segmentLog.append(record("record-" + i))).isTrue();
+        }
+
+        assertThat(text(segmentLog.peek(3))).containsExactly("record-0", "record-1", "record-2");
+        assertThat(text(segmentLog.peek(3))).containsExactly("record-0", "record-1", "record-2");
+
+        segmentLog.commit(15);
+
+        assertThat(segmentLog.getPendingRecords()).isEqualTo(5);
+        assertThat(text(segmentLog.peek(10)))
+                .containsExactly("record-15", "record-16", "record-17", "record-18", "record-19");
+    }
+
+    @Test
+    public void rejectsAppendsWhenAllSegmentsAreUsed() {
+        SegmentLog segmentLog = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 2);
+        int appended = 0;
+        while (segmentLog.append(record("record-" + appended))) {
+            appended++;
+        }
+
+        assertThat(appended).isEqualTo(15);
+
+        segmentLog.commit(7);
+
+        assertThat(segmentLog.append(record("record-" + appended))).isFalse();
+
+        segmentLog.commit(1);
+
+        assertThat(segmentLog.append(record("record-" + appended))).isTrue();
+    }
+
+    @Test
+    public void recoversUncommittedRecordsAfterReopen() {
+        SegmentLog segmentLog = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 4);
+        for (int i = 0; i < 10; i++) {
+            segmentLog.append(record("record-" + i));
+        }
+        segmentLog.commit(4);
+        segmentLog.close();
+
+        SegmentLog reopened = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 4);
+
+        assertThat(reopened.getPendingRecords()).isEqualTo(6);
+        assertThat(text(reopened.peek(1))).containsExactly("record-4");
+    }
+
+    @Test
+    public void cursorReadsAllRecordsWithoutConsumingThem() {
+        SegmentLog segmentLog = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 4);
+        for (int i = 0; i < 10; i++) {
+            segmentLog.append(record("record-" + i));
+        }
+        segmentLog.commit(2);
+
+        SegmentLog.Cursor cursor = segmentLog.cursor();
+
+        assertThat(text(cursor.next(5)))
+                .containsExactly("record-2", "record-3", "record-4", "record-5", "record-6");
+        assertThat(text(cursor.next(5))).containsExactly("record-7", "record-8", "record-9");
+        assertThat(cursor.next(5)).isEmpty();
+        assertThat(segmentLog.getPendingRecords()).isEqualTo(8);
+
+        segmentLog.append(record("record-10"));
+
+        assertThat(text(cursor.next(5))).containsExactly("record-10");
+        assertThat(text(segmentLog.cursor().next(1))).containsExactly("record-2");
+    }
+
+    @Test
+    public void rejectsAppendsAfterClose() {
+        SegmentLog segmentLog = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 4);
+        segmentLog.append(record("record-0"));
+        segmentLog.force();
+        segmentLog.close();
+
+        assertThatThrownBy(() -> segmentLog.append(record("record-1"))).isInstanceOf(IllegalStateException.class);
+        assertThat(segmentLog.peek(1)).isEmpty();
+        assertThat(text(new SegmentLog(directory, SEGMENT_SIZE_BYTES, 4).peek(2))).containsExactly("record-0");
+    }
+
+    private ByteBuffer record(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> text(List<ByteBuffer> records) {
+        return records.stream()
+                .map(record -> StandardCharsets.UTF_8.decode(record).toString())
+                .collect(Collectors.toList());
+    }
+}
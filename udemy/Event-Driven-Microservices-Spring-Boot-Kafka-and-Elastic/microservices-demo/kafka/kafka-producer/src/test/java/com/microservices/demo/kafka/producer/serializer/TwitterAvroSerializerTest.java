@@ -0,0 +1,89 @@
+package com.microservices.demo.kafka.producer.serializer;
+
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import io.confluent.kafka.serializers.subject.RecordNameStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TwitterAvroSerializerTest {
+
+    private static final String TOPIC = "twitter-topic";
+
+    private static final Map<String, Object> CONFIGS = Map.of(
+            KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG, "http://localhost:8081",
+            KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, true);
+
+    private SchemaRegistryClient schemaRegistryClient;
+
+    private TwitterAvroSerializer twitterAvroSerializer;
+
+    @BeforeEach
+    public void setUp() {
+        schemaRegistryClient = new MockSchemaRegistryClient();
+        twitterAvroSerializer = new TwitterAvroSerializer(schemaRegistryClient);
+        twitterAvroSerializer.configure(CONFIGS, false);
+    }
+
+    @Test
+    public void producesSameBytesAsKafkaAvroSerializer() {
+        KafkaAvroSerializer kafkaAvroSerializer = new KafkaAvroSerializer(schemaRegistryClient);
+        kafkaAvroSerializer.configure(CONFIGS, false);
+        TwitterAvroModel twitterAvroModel = twitterAvroModel(1L, "Lorem ipsum dolor Java sit amet");
+
+        assertThat(twitterAvroSerializer.serialize(TOPIC, twitterAvroModel))
+                .isEqualTo(kafkaAvroSerializer.serialize(TOPIC, twitterAvroModel));
+    }
+
+    @Test
+    public void reusedBufferOnlyContainsCurrentRecord() {
+        KafkaAvroDeserializer kafkaAvroDeserializer = new KafkaAvroDeserializer(schemaRegistryClient);
+        kafkaAvroDeserializer.configure(CONFIGS, false);
+        twitterAvroSerializer.serialize(TOPIC, twitterAvroModel(1L, "Lorem ipsum dolor Java sit amet ".repeat(50)));
+        TwitterAvroModel shortTweet = twitterAvroModel(2L, "Kafka");
+
+        byte[] serialized = twitterAvroSerializer.serialize(TOPIC, shortTweet);
+
+        assertThat(kafkaAvroDeserializer.deserialize(TOPIC, serialized)).isEqualTo(shortTweet);
+    }
+
+    @Test
+    public void usesConfiguredSubjectNameStrategy() throws Exception {
+        Map<String, Object> configs = new HashMap<>(CONFIGS);
+        configs.put(KafkaAvroSerializerConfig.VALUE_SUBJECT_NAME_STRATEGY, RecordNameStrategy.class.getName());
+        twitterAvroSerializer.configure(configs, false);
+        KafkaAvroSerializer kafkaAvroSerializer = new KafkaAvroSerializer(schemaRegistryClient);
+        kafkaAvroSerializer.configure(configs, false);
+        TwitterAvroModel twitterAvroModel = twitterAvroModel(1L, "Lorem ipsum dolor Java sit amet");
+
+        byte[] serialized = twitterAvroSerializer.serialize(TOPIC, twitterAvroModel);
+
+        assertThat(schemaRegistryClient.getAllSubjects())
+                .containsExactly(TwitterAvroModel.getClassSchema().getFullName());
+        assertThat(serialized).isEqualTo(kafkaAvroSerializer.serialize(TOPIC, twitterAvroModel));
+    }
+
+    @Test
+    public void serializesNullAsNull() {
+        assertThat(twitterAvroSerializer.serialize(TOPIC, null)).isNull();
+    }
+
+    private TwitterAvroModel twitterAvroModel(long id, String text) {
+        return TwitterAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(42L)
+                .setText(text)
+                .setCreatedAt(1_600_000_000_000L)
+                .build();
+    }
+}
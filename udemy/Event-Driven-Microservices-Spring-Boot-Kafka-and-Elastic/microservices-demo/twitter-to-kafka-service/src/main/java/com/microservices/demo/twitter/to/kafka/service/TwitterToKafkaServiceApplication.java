@@ -1,5 +1,8 @@
 package com.microservices.demo.twitter.to.kafka.service;
 
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.twitter.to.kafka.service.handoff.HandOffBuffer;
 import com.microservices.demo.twitter.to.kafka.service.init.StreamInitializer;
 import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
 import org.slf4j.Logger;
@@ -9,19 +12,36 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 
+import java.util.concurrent.CompletableFuture;
+
 @SpringBootApplication
-@ComponentScan(basePackages = "com.microservices.demo")
+@ComponentScan(basePackages = {
+        "com.microservices.demo.twitter.to.kafka.service",
+        "com.microservices.demo.config",
+        "com.microservices.demo.common.config",
+        "com.microservices.demo.kafka.admin",
+        "com.microservices.demo.kafka.producer"
+})
 public class TwitterToKafkaServiceApplication implements CommandLineRunner {
 
     private static final Logger LOG = LoggerFactory.getLogger(TwitterToKafkaServiceApplication.class);
 
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
     private final StreamRunner streamRunner;
 
     private final StreamInitializer streamInitializer;
 
-    public TwitterToKafkaServiceApplication(StreamRunner runner, StreamInitializer initializer) {
+    private final HandOffBuffer<TwitterAvroModel> handOffBuffer;
+
+    public TwitterToKafkaServiceApplication(TwitterToKafkaServiceConfigData configData,
+                                            StreamRunner runner,
+                                            StreamInitializer initializer,
+                                            HandOffBuffer<TwitterAvroModel> buffer) {
+        this.twitterToKafkaServiceConfigData = configData;
         this.streamRunner = runner;
         this.streamInitializer = initializer;
+        this.handOffBuffer = buffer;
     }
 
     public static void main(String[] args) {
@@ -31,7 +51,22 @@ public class TwitterToKafkaServiceApplication implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         LOG.info("App starts...");
-        streamInitializer.init();
+        if (Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getOverlapReadinessWithStream())) {
+            startWhileInitializing();
+        } else {
+            streamInitializer.init();
+            streamRunner.start();
+        }
+    }
+
+    /**
+     * Connects the stream while topics and schema registry are still being checked. Records received meanwhile
+     * wait in the hand-off buffer, subject to its overflow policy, and a failed initialization still fails startup.
+     */
+    private void startWhileInitializing() throws Exception {
+        CompletableFuture<Void> readiness = streamInitializer.initAsync();
+        handOffBuffer.holdUntil(readiness);
         streamRunner.start();
+        readiness.join();
     }
 }
@@ -0,0 +1,50 @@
+package com.microservices.demo.twitter.to.kafka.service.capture;
+
+import com.microservices.demo.kafka.avro.compact.TokenDictionary;
+import com.microservices.demo.kafka.avro.compact.TwitterCompactAvroModels;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.avro.model.TwitterCompactAvroModel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A tweet as received by the service, with its arrival time in microseconds since the epoch, see
+ * {@link TweetCapture} for how it is measured. Stored as the 8 byte
+ * arrival time followed by the dictionary encoded {@link TwitterCompactAvroModel}, which carries its dictionary
+ * version, so captures stay readable after the dictionary changed.
+ */
+public final class CapturedTweet {
+
+    private final long arrivalMicros;
+
+    private final TwitterAvroModel twitterAvroModel;
+
+    public CapturedTweet(long arrivalMicros, TwitterAvroModel twitterAvroModel) {
+        this.arrivalMicros = arrivalMicros;
+        this.twitterAvroModel = twitterAvroModel;
+    }
+
+    public long getArrivalMicros() {
+        return arrivalMicros;
+    }
+
+    public TwitterAvroModel getTwitterAvroModel() {
+        return twitterAvroModel;
+    }
+
+    public ByteBuffer encode(TokenDictionary dictionary) throws IOException {
+        ByteBuffer compact = TwitterCompactAvroModel.getEncoder()
+                .encode(TwitterCompactAvroModels.toCompact(twitterAvroModel, dictionary));
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + compact.remaining());
+        payload.putLong(arrivalMicros).put(compact).flip();
+        return payload;
+    }
+
+    public static CapturedTweet decode(ByteBuffer payload) throws IOException {
+        ByteBuffer buffer = payload.duplicate();
+        long arrivalMicros = buffer.getLong();
+        return new CapturedTweet(arrivalMicros,
+                TwitterCompactAvroModels.fromCompact(TwitterCompactAvroModel.getDecoder().decode(buffer)));
+    }
+}
@@ -0,0 +1,117 @@
+package com.microservices.demo.twitter.to.kafka.service.capture;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.compact.TokenDictionary;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.segment.SegmentLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import twitter4j.Status;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Appends every tweet the status listener receives to memory-mapped segment files in capture-directory, for the
+ * replay stream runner to play back later. Tweets are captured as received, before dedup, keyword tagging and the
+ * keyword filter. Capturing encodes each tweet on the receiving thread, so it is meant for recording incidents and
+ * load test input, not for permanent use. When all capture-max-segments segments are full further tweets are not
+ * captured. Capturing is off while the replay runner reads the same directory.
+ * <p>
+ * Arrival times are measured with {@link System#nanoTime()} from a wall-clock base taken when capturing starts, so
+ * that wall-clock adjustments do not distort the gaps between captured tweets.
+ */
+@Component
+public class TweetCapture {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TweetCapture.class);
+
+    private static final int DICTIONARY_VERSION = 1;
+
+    private final SegmentLog captureLog;
+
+    private final TokenDictionary dictionary;
+
+    private final Counter capturedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final AtomicBoolean fullLogged = new AtomicBoolean();
+
+    private final long baseEpochMicros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+
+    private final long baseNanos = System.nanoTime();
+
+    public TweetCapture(TwitterToKafkaServiceConfigData configData, MeterRegistry meterRegistry) {
+        boolean replaying = Boolean.TRUE.equals(configData.getEnableMockTweets()) &&
+                "replay".equals(configData.getMockStreamMode());
+        if (Boolean.TRUE.equals(configData.getCaptureEnabled()) && !replaying) {
+            this.captureLog = new SegmentLog(Paths.get(configData.getCaptureDirectory()),
+                    configData.getCaptureSegmentSizeBytes(), configData.getCaptureMaxSegments());
+            this.dictionary = TokenDictionary.load(DICTIONARY_VERSION);
+            LOG.info("Capturing received tweets to {}", configData.getCaptureDirectory());
+        } else {
+            this.captureLog = null;
+            this.dictionary = null;
+        }
+        this.capturedCounter = Counter.builder("twitter.capture.captured")
+                .description("Received tweets appended to the capture log")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("twitter.capture.rejected")
+                .description("Received tweets not captured because the capture log was full or failed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return captureLog != null;
+    }
+
+    public void capture(Status status) {
+        if (captureLog == null) {
+            return;
+        }
+        capture(TwitterAvroModel.newBuilder()
+                .setId(status.getId())
+                .setUserId(status.getUser().getId())
+                .setText(status.getText())
+                .setCreatedAt(status.getCreatedAt().getTime())
+                .setKeywords(new ArrayList<>(0))
+                .build());
+    }
+
+    public void capture(TwitterAvroModel twitterAvroModel) {
+        if (captureLog == null) {
+            return;
+        }
+        long arrivalMicros = baseEpochMicros + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - baseNanos);
+        try {
+            if (captureLog.append(new CapturedTweet(arrivalMicros, twitterAvroModel).encode(dictionary))) {
+                capturedCounter.increment();
+                return;
+            }
+            if (fullLogged.compareAndSet(false, true)) {
+                LOG.warn("Capture log is full, further tweets are not captured");
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not capture tweet {}", twitterAvroModel.getId(), e);
+        }
+        rejectedCounter.increment();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (captureLog != null) {
+            LOG.info("Closing capture log with {} captured tweet(s)", captureLog.getPendingRecords());
+            captureLog.close();
+        }
+    }
+}
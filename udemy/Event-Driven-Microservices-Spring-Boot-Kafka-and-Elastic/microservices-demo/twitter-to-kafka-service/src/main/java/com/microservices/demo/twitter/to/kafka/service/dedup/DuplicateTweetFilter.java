@@ -0,0 +1,61 @@
+package com.microservices.demo.twitter.to.kafka.service.dedup;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops tweets whose id was already seen within the configured window, e.g. redeliveries after twitter4j
+ * reconnects. Backed by a {@link RotatingBloomFilter}, so a small share of new tweets, about the configured false
+ * positive rate, is dropped as well. When dedup is disabled every tweet is treated as new.
+ */
+@Component
+public class DuplicateTweetFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DuplicateTweetFilter.class);
+
+    private final RotatingBloomFilter rotatingBloomFilter;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    public DuplicateTweetFilter(TwitterToKafkaServiceConfigData configData, MeterRegistry meterRegistry) {
+        if (Boolean.TRUE.equals(configData.getDedupEnabled())) {
+            this.rotatingBloomFilter = new RotatingBloomFilter(configData.getDedupExpectedInsertions(),
+                    configData.getDedupFalsePositiveRate(),
+                    TimeUnit.SECONDS.toMillis(configData.getDedupWindowSeconds()),
+                    System::currentTimeMillis);
+            LOG.info("Tweet dedup enabled with a window of {} s, {} bits and {} hash functions per filter",
+                    configData.getDedupWindowSeconds(), rotatingBloomFilter.getBitCount(),
+                    rotatingBloomFilter.getHashCount());
+        } else {
+            this.rotatingBloomFilter = null;
+        }
+        this.hitCounter = Counter.builder("twitter.pipeline.dedup")
+                .tag("result", "hit")
+                .description("Tweets dropped as duplicates")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("twitter.pipeline.dedup")
+                .tag("result", "miss")
+                .description("Tweets passed on as not seen before")
+                .register(meterRegistry);
+    }
+
+    public boolean isDuplicate(long tweetId) {
+        if (rotatingBloomFilter == null) {
+            return false;
+        }
+        if (rotatingBloomFilter.putIfAbsent(tweetId)) {
+            hitCounter.increment();
+            return true;
+        }
+        missCounter.increment();
+        return false;
+    }
+}
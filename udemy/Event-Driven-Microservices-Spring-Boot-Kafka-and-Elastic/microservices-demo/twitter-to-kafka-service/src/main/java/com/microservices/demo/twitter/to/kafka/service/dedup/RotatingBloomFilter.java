@@ -0,0 +1,119 @@
+package com.microservices.demo.twitter.to.kafka.service.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-windowed set membership for long ids with bounded memory. Two Bloom filters are kept: ids are added to the
+ * current one and looked up in both, and every window the older one is cleared and becomes the current one. An id
+ * is therefore remembered for at least one and at most two windows. Lookups can report false positives at about the
+ * configured rate when no more than the expected number of ids is added per window, they never report false
+ * negatives within the window.
+ * <p>
+ * Bits are set with compare-and-set, so concurrent callers never lose each other's insertions. Two threads adding
+ * the same id at the same time may both see it as new.
+ */
+public class RotatingBloomFilter {
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    private final long windowMs;
+
+    private final LongSupplier clock;
+
+    private volatile AtomicLongArray current;
+
+    private volatile AtomicLongArray previous;
+
+    private volatile long nextRotationMs;
+
+    public RotatingBloomFilter(long expectedInsertionsPerWindow, double falsePositiveRate, long windowMs,
+                               LongSupplier clock) {
+        if (expectedInsertionsPerWindow <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || windowMs <= 0) {
+            throw new IllegalArgumentException("Expected insertions and window must be positive and the false " +
+                    "positive rate between 0 and 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertionsPerWindow * Math.log(falsePositiveRate) /
+                (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - Long.SIZE, Math.max(Long.SIZE, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertionsPerWindow * Math.log(2)));
+        this.windowMs = windowMs;
+        this.clock = clock;
+        this.current = new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+        this.previous = new AtomicLongArray(current.length());
+        this.nextRotationMs = clock.getAsLong() + windowMs;
+    }
+
+    /**
+     * Adds the id to the filter.
+     *
+     * @return true if the id was probably added before within the window
+     */
+    public boolean putIfAbsent(long id) {
+        rotateIfDue();
+        long hash1 = mix(id);
+        long hash2 = mix(hash1) | 1;
+        AtomicLongArray currentBits = current;
+        AtomicLongArray previousBits = previous;
+        boolean inCurrent = true;
+        boolean inPrevious = true;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            inPrevious &= (previousBits.get(word) & mask) != 0;
+            long bits = currentBits.get(word);
+            while ((bits & mask) == 0) {
+                inCurrent = false;
+                if (currentBits.compareAndSet(word, bits, bits | mask)) {
+                    break;
+                }
+                bits = currentBits.get(word);
+            }
+        }
+        return inCurrent || inPrevious;
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private void rotateIfDue() {
+        if (clock.getAsLong() < nextRotationMs) {
+            return;
+        }
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (now < nextRotationMs) {
+                return;
+            }
+            AtomicLongArray recycled = previous;
+            clear(recycled);
+            if (now >= nextRotationMs + windowMs) {
+                clear(current);
+            }
+            previous = current;
+            current = recycled;
+            nextRotationMs = now + windowMs;
+        }
+    }
+
+    private static void clear(AtomicLongArray bits) {
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0L);
+        }
+    }
+
+    private static long mix(long value) {
+        long hash = value + 0x9E3779B97F4A7C15L;
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
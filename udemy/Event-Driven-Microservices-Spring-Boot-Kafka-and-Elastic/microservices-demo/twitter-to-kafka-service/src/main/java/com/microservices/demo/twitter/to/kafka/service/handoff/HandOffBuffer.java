@@ -0,0 +1,28 @@
+package com.microservices.demo.twitter.to.kafka.service.handoff;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface HandOffBuffer<T> {
+    boolean offer(T element);
+
+    int queueDepth();
+
+    /**
+     * @return how many elements the buffer holds at most
+     */
+    int capacity();
+
+    long droppedCount();
+
+    /**
+     * Keeps accepting elements but holds them back from the sink until the given future completes normally.
+     */
+    void holdUntil(CompletableFuture<?> readiness);
+
+    /**
+     * Lets the sink take what is left for at most the timeout, then stops it.
+     *
+     * @return elements dropped because they were still buffered at the deadline
+     */
+    int drainAndStop(long timeoutMs);
+}
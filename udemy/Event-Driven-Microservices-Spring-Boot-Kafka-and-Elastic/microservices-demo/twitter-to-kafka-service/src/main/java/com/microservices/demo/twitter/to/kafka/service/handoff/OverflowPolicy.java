@@ -0,0 +1,22 @@
+package com.microservices.demo.twitter.to.kafka.service.handoff;
+
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+
+import java.util.Locale;
+
+/**
+ * What to do with a new element when the hand-off buffer is full.
+ */
+public enum OverflowPolicy {
+    BLOCK,
+    DROP_OLDEST,
+    DROP_NEWEST;
+
+    public static OverflowPolicy fromConfig(String value) {
+        try {
+            return OverflowPolicy.valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new TwitterToKafkaServiceException("Unknown hand-off overflow policy " + value + "!", e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.microservices.demo.twitter.to.kafka.service.handoff.impl;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.BatchSendResult;
+import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.handoff.HandOffBuffer;
+import com.microservices.demo.twitter.to.kafka.service.handoff.OverflowPolicy;
+import com.microservices.demo.twitter.to.kafka.service.keyword.KeywordTopicRouter;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterAvroModelPool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded hand-off between the twitter4j callback thread and the kafka producer. Statuses are only enqueued on the
+ * callback thread; dedicated sender threads drain them in batches of up to hand-off-drain-size records and hand each
+ * batch to {@link KafkaProducer#sendAll}.
+ * <p>
+ * Every sender thread drains its own queue, and records are queued by the hash of their user id, the record key. So
+ * all records of a key are handed to the producer by one thread, in the order they arrived. The capacity is split
+ * evenly across the queues.
+ */
+@Component
+public class KafkaHandOffBuffer implements HandOffBuffer<TwitterAvroModel> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaHandOffBuffer.class);
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private final TwitterAvroModelPool twitterAvroModelPool;
+
+    private final KeywordTopicRouter keywordTopicRouter;
+
+    private final List<BlockingQueue<TwitterAvroModel>> queues;
+
+    private final List<Semaphore> inFlightBatches;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final int drainSize;
+
+    private final int senderThreads;
+
+    private final int maxInFlightBatches;
+
+    private final int capacity;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private ExecutorService senderExecutor;
+
+    private volatile CompletableFuture<?> readiness = CompletableFuture.completedFuture(null);
+
+    private volatile boolean running;
+
+    private volatile CompletableFuture<?> failedReadiness;
+
+    public KafkaHandOffBuffer(TwitterToKafkaServiceConfigData configData,
+                              KafkaConfigData kafkaConfigData,
+                              KafkaProducer<Long, TwitterAvroModel> producer,
+                              TwitterAvroModelPool modelPool,
+                              KeywordTopicRouter topicRouter,
+                              MeterRegistry meterRegistry) {
+        this.kafkaConfigData = kafkaConfigData;
+        this.kafkaProducer = producer;
+        this.twitterAvroModelPool = modelPool;
+        this.keywordTopicRouter = topicRouter;
+        this.overflowPolicy = OverflowPolicy.fromConfig(configData.getHandOffOverflowPolicy());
+        this.drainSize = configData.getHandOffDrainSize();
+        this.senderThreads = configData.getHandOffSenderThreads();
+        this.maxInFlightBatches = configData.getHandOffMaxInFlightBatches();
+        int queueCapacity = (configData.getHandOffQueueCapacity() + senderThreads - 1) / senderThreads;
+        this.capacity = queueCapacity * senderThreads;
+        this.queues = new ArrayList<>(senderThreads);
+        this.inFlightBatches = new ArrayList<>(senderThreads);
+        for (int i = 0; i < senderThreads; i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+            inFlightBatches.add(new Semaphore(maxInFlightBatches));
+        }
+        Gauge.builder("twitter.pipeline.hand.off.depth", this, KafkaHandOffBuffer::queueDepth)
+                .description("Records waiting in the hand-off buffer")
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.pipeline.hand.off.dropped", droppedCount, LongAdder::sum)
+                .description("Records dropped by the hand-off overflow policy")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger threadCount = new AtomicInteger();
+        senderExecutor = Executors.newFixedThreadPool(senderThreads,
+                runnable -> new Thread(runnable, "hand-off-sender-" + threadCount.incrementAndGet()));
+        for (int i = 0; i < senderThreads; i++) {
+            int shard = i;
+            senderExecutor.submit(() -> drain(queues.get(shard), inFlightBatches.get(shard)));
+        }
+        LOG.info("Started {} hand-off sender thread(s) with capacity {} each, up to {} batch(es) in flight per " +
+                "thread and overflow policy {}", senderThreads, queues.get(0).remainingCapacity(),
+                maxInFlightBatches, overflowPolicy);
+    }
+
+    @Override
+    public boolean offer(TwitterAvroModel element) {
+        BlockingQueue<TwitterAvroModel> queue =
+                queues.get(Math.floorMod(Long.hashCode(element.getUserId()), queues.size()));
+        switch (overflowPolicy) {
+            case BLOCK:
+                put(queue, element);
+                return true;
+            case DROP_OLDEST:
+                while (!queue.offer(element)) {
+                    TwitterAvroModel oldest = queue.poll();
+                    if (oldest != null) {
+                        droppedCount.increment();
+                        twitterAvroModelPool.release(oldest);
+                    }
+                }
+                return true;
+            default:
+                if (!queue.offer(element)) {
+                    droppedCount.increment();
+                    twitterAvroModelPool.release(element);
+                    return false;
+                }
+                return true;
+        }
+    }
+
+    @Override
+    public int queueDepth() {
+        int depth = 0;
+        for (BlockingQueue<TwitterAvroModel> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public void holdUntil(CompletableFuture<?> readinessFuture) {
+        this.readiness = readinessFuture;
+    }
+
+    /**
+     * Sender threads keep draining their queues until they are empty and the sent batches are acknowledged, or the
+     * timeout passed; what is left in the queues then is dropped and counted as such.
+     */
+    @Override
+    public synchronized int drainAndStop(long timeoutMs) {
+        running = false;
+        if (senderExecutor != null) {
+            senderExecutor.shutdown();
+            try {
+                if (!senderExecutor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    senderExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                senderExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        int dropped = 0;
+        for (BlockingQueue<TwitterAvroModel> queue : queues) {
+            dropped += drop(queue, null);
+        }
+        return dropped;
+    }
+
+    @PreDestroy
+    public void stop() {
+        LOG.info("Stopping hand-off sender threads, {} record(s) left in queue", queueDepth());
+        int dropped = drainAndStop(POLL_TIMEOUT_MS * 10);
+        if (dropped > 0) {
+            LOG.warn("Dropped {} record(s) left in the hand-off queue", dropped);
+        }
+    }
+
+    private void put(BlockingQueue<TwitterAvroModel> queue, TwitterAvroModel element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterToKafkaServiceException("Interrupted while waiting for hand-off buffer capacity!", e);
+        }
+    }
+
+    /**
+     * Keeps up to hand-off-max-in-flight-batches batches of the queue unacknowledged, so a slow broker pushes back on
+     * the queue (and through the overflow policy on the stream) without the thread waiting for every single batch.
+     * Records are handed to the producer in the order they are drained, which keeps their order per key.
+     */
+    private void drain(BlockingQueue<TwitterAvroModel> queue, Semaphore inFlight) {
+        try {
+            while (running || !queue.isEmpty()) {
+                if (!isReady(queue) || !inFlight.tryAcquire(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                TwitterAvroModel first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    inFlight.release();
+                    continue;
+                }
+                List<TwitterAvroModel> batch = new ArrayList<>(drainSize);
+                batch.add(first);
+                queue.drainTo(batch, drainSize - 1);
+                CompletableFuture<Void> sent;
+                try {
+                    sent = send(batch);
+                } catch (RuntimeException e) {
+                    sent = CompletableFuture.failedFuture(e);
+                }
+                sent.whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        LOG.error("Error while sending batch of {} record(s) to kafka", batch.size(), throwable);
+                    }
+                    twitterAvroModelPool.releaseAll(batch);
+                    inFlight.release();
+                });
+            }
+            inFlight.acquire(maxInFlightBatches);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits up to one poll timeout for the readiness future, so that stop requests are still noticed. Once readiness
+     * failed nothing will be sent, so queued records are dropped instead of being held until shutdown.
+     */
+    private boolean isReady(BlockingQueue<TwitterAvroModel> queue) throws InterruptedException {
+        CompletableFuture<?> currentReadiness = readiness;
+        if (currentReadiness.isDone() && !currentReadiness.isCompletedExceptionally()) {
+            return true;
+        }
+        try {
+            currentReadiness.get(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            if (failedReadiness != currentReadiness) {
+                failedReadiness = currentReadiness;
+                LOG.error("Kafka readiness check failed, dropping records handed off to kafka", e.getCause());
+            }
+            drop(queue, queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            return false;
+        }
+    }
+
+    /**
+     * @return number of records dropped, first plus what was left in the queue
+     */
+    private int drop(BlockingQueue<TwitterAvroModel> queue, TwitterAvroModel first) {
+        List<TwitterAvroModel> left = new ArrayList<>();
+        if (first != null) {
+            left.add(first);
+        }
+        queue.drainTo(left);
+        droppedCount.add(left.size());
+        twitterAvroModelPool.releaseAll(left);
+        return left.size();
+    }
+
+    /**
+     * The returned future completes once the batch is acknowledged; the models are then no longer referenced by the
+     * producer and can go back to the pool.
+     */
+    private CompletableFuture<Void> send(List<TwitterAvroModel> batch) {
+        if (!keywordTopicRouter.isEnabled()) {
+            return kafkaProducer.sendAll(kafkaConfigData.getTopicName(), batch, TwitterAvroModel::getUserId)
+                    .thenAccept(this::logFailures);
+        }
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        keywordTopicRouter.groupByTopic(batch, kafkaConfigData.getTopicName()).forEach((topicName, records) ->
+                results.add(kafkaProducer.sendAll(topicName, records, TwitterAvroModel::getUserId)
+                        .thenAccept(this::logFailures)));
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]));
+    }
+
+    private void logFailures(BatchSendResult<TwitterAvroModel> result) {
+        if (result.hasFailures()) {
+            LOG.error("Failed to send {} record(s) to topic {}", result.getFailures().size(), result.getTopicName(),
+                    result.getFailures().get(0).getCause());
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.microservices.demo.twitter.to.kafka.service.init;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface StreamInitializer {
     void init();
+
+    /**
+     * Same as {@link #init()} without blocking the caller, the future completes once initialization is done.
+     */
+    CompletableFuture<Void> initAsync();
 }
@@ -7,6 +7,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class KafkaStreamInitializer implements StreamInitializer {
 
@@ -23,8 +25,14 @@ public class KafkaStreamInitializer implements StreamInitializer {
 
     @Override
     public void init() {
-        kafkaAdminClient.createTopics();
-        kafkaAdminClient.checkSchemaRegistry();
-        LOG.info("Topics with name {} is ready for operations!", kafkaConfigData.getTopicNamesToCreate().toArray());
+        initAsync().join();
+    }
+
+    @Override
+    public CompletableFuture<Void> initAsync() {
+        return kafkaAdminClient.createTopicsAndCheckReadiness()
+                .doOnSuccess(ignored -> LOG.info("Topics with name {} is ready for operations!",
+                        kafkaConfigData.getTopicNamesToCreate().toArray()))
+                .toFuture();
     }
 }
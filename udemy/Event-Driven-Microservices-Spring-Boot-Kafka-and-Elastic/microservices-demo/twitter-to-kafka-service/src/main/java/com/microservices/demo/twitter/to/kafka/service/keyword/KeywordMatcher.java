@@ -0,0 +1,174 @@
+package com.microservices.demo.twitter.to.kafka.service.keyword;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive Aho-Corasick matcher over a fixed set of keywords. The automaton is built once and is immutable,
+ * so a single instance can be shared by all stream threads. Matching a text takes one pass over its characters,
+ * independent of the number of keywords, plus the work for each match that is reported.
+ */
+public class KeywordMatcher {
+
+    private static final int ROOT = 0;
+
+    private static final int NONE = -1;
+
+    private final boolean wholeWords;
+
+    private final String[] keywords;
+
+    private final int[] keywordLengths;
+
+    private final char[][] transitionChars;
+
+    private final int[][] transitionTargets;
+
+    private final int[] failure;
+
+    private final int[] output;
+
+    private final int[] outputLink;
+
+    /**
+     * @param keywords   keywords to match, keywords equal ignoring case are matched once under their first spelling
+     * @param wholeWords only match keywords that are not preceded or followed by a letter or digit
+     */
+    public KeywordMatcher(Collection<String> keywords, boolean wholeWords) {
+        this.wholeWords = wholeWords;
+        List<String> distinctKeywords = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        outputs.add(NONE);
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isEmpty() || !seen.add(keyword.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new TreeMap<>());
+                    outputs.add(NONE);
+                }
+                state = next;
+            }
+            outputs.set(state, distinctKeywords.size());
+            distinctKeywords.add(keyword);
+        }
+        int stateCount = trie.size();
+        this.keywords = distinctKeywords.toArray(new String[0]);
+        this.keywordLengths = distinctKeywords.stream().mapToInt(String::length).toArray();
+        this.transitionChars = new char[stateCount][];
+        this.transitionTargets = new int[stateCount][];
+        this.failure = new int[stateCount];
+        this.output = outputs.stream().mapToInt(Integer::intValue).toArray();
+        this.outputLink = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> transitions = trie.get(state);
+            transitionChars[state] = new char[transitions.size()];
+            transitionTargets[state] = new int[transitions.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                transitionChars[state][i] = transition.getKey();
+                transitionTargets[state][i] = transition.getValue();
+                i++;
+            }
+        }
+        buildFailureLinks();
+    }
+
+    /**
+     * Adds every keyword found in the text to matches, in the order they are first found and without duplicates.
+     */
+    public void match(CharSequence text, List<String> matches) {
+        if (text == null || keywords.length == 0) {
+            return;
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next = transition(state, c);
+            while (next == NONE && state != ROOT) {
+                state = failure[state];
+                next = transition(state, c);
+            }
+            state = next == NONE ? ROOT : next;
+            for (int match = output[state] != NONE ? state : outputLink[state]; match != NONE;
+                 match = outputLink[match]) {
+                int keyword = output[match];
+                if (isWholeWordMatch(text, i - keywordLengths[keyword] + 1, i) &&
+                        !matches.contains(keywords[keyword])) {
+                    matches.add(keywords[keyword]);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    private void buildFailureLinks() {
+        Deque<Integer> queue = new ArrayDeque<>();
+        failure[ROOT] = ROOT;
+        outputLink[ROOT] = NONE;
+        for (int child : transitionTargets[ROOT]) {
+            failure[child] = ROOT;
+            outputLink[child] = NONE;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+                int fallback = failure[state];
+                int target = transition(fallback, c);
+                while (target == NONE && fallback != ROOT) {
+                    fallback = failure[fallback];
+                    target = transition(fallback, c);
+                }
+                failure[child] = target == NONE ? ROOT : target;
+                outputLink[child] = output[failure[child]] != NONE ? failure[child] : outputLink[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int transition(int state, char c) {
+        char[] chars = transitionChars[state];
+        int low = 0;
+        int high = chars.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (chars[middle] < c) {
+                low = middle + 1;
+            } else if (chars[middle] > c) {
+                high = middle - 1;
+            } else {
+                return transitionTargets[state][middle];
+            }
+        }
+        return NONE;
+    }
+
+    private boolean isWholeWordMatch(CharSequence text, int start, int end) {
+        return !wholeWords ||
+                ((start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1))) &&
+                        (end == text.length() - 1 || !Character.isLetterOrDigit(text.charAt(end + 1))));
+    }
+}
@@ -0,0 +1,44 @@
+package com.microservices.demo.twitter.to.kafka.service.keyword;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Finds which of the configured twitter keywords a tweet text contains. The matcher is compiled once from
+ * twitter-to-kafka-service.twitter-keywords at startup.
+ */
+@Component
+public class KeywordTagger {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeywordTagger.class);
+
+    private final KeywordMatcher keywordMatcher;
+
+    private final boolean filterEnabled;
+
+    public KeywordTagger(TwitterToKafkaServiceConfigData configData) {
+        this.keywordMatcher = new KeywordMatcher(configData.getTwitterKeywords(),
+                !Boolean.FALSE.equals(configData.getKeywordMatchWholeWords()));
+        this.filterEnabled = Boolean.TRUE.equals(configData.getKeywordFilterEnabled());
+        LOG.info("Compiled keyword matcher for {} keyword(s), dropping tweets without a match: {}",
+                keywordMatcher.size(), filterEnabled);
+    }
+
+    /**
+     * Adds the keywords found in the text to the given list.
+     */
+    public void tag(String text, List<String> keywords) {
+        keywordMatcher.match(text, keywords);
+    }
+
+    /**
+     * @return true if tweets that match none of the keywords should be dropped
+     */
+    public boolean isFilterEnabled() {
+        return filterEnabled;
+    }
+}
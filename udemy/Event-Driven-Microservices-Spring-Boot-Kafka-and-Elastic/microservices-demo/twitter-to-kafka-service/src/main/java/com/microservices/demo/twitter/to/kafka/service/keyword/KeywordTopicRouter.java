@@ -0,0 +1,70 @@
+package com.microservices.demo.twitter.to.kafka.service.keyword;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes tweets to the topic configured for their first matched keyword in
+ * twitter-to-kafka-service.keyword-topics. Tweets without a routed keyword go to the default topic. Routing is
+ * disabled when no keyword topics are configured. Routed topics are not created automatically, they have to be
+ * listed in kafka-config.topic-names-to-create as well.
+ */
+@Component
+public class KeywordTopicRouter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeywordTopicRouter.class);
+
+    private final Map<String, String> topicsByKeyword = new HashMap<>();
+
+    public KeywordTopicRouter(TwitterToKafkaServiceConfigData configData) {
+        Map<String, String> keywordTopics = configData.getKeywordTopics();
+        if (keywordTopics == null) {
+            return;
+        }
+        for (String keyword : configData.getTwitterKeywords()) {
+            keywordTopics.entrySet().stream()
+                    .filter(entry -> entry.getKey().equalsIgnoreCase(keyword))
+                    .findFirst()
+                    .ifPresent(entry -> topicsByKeyword.put(keyword, entry.getValue()));
+        }
+        LOG.info("Routing tweets by keyword to topics {}", topicsByKeyword);
+    }
+
+    public boolean isEnabled() {
+        return !topicsByKeyword.isEmpty();
+    }
+
+    public String topicFor(TwitterAvroModel twitterAvroModel, String defaultTopicName) {
+        List<String> keywords = twitterAvroModel.getKeywords();
+        if (keywords != null) {
+            for (int i = 0; i < keywords.size(); i++) {
+                String topicName = topicsByKeyword.get(keywords.get(i));
+                if (topicName != null) {
+                    return topicName;
+                }
+            }
+        }
+        return defaultTopicName;
+    }
+
+    /**
+     * Splits a batch by target topic, keeping the order of records within each topic.
+     */
+    public Map<String, List<TwitterAvroModel>> groupByTopic(List<TwitterAvroModel> batch, String defaultTopicName) {
+        Map<String, List<TwitterAvroModel>> batchesByTopic = new LinkedHashMap<>();
+        for (TwitterAvroModel twitterAvroModel : batch) {
+            batchesByTopic.computeIfAbsent(topicFor(twitterAvroModel, defaultTopicName), topic -> new ArrayList<>())
+                    .add(twitterAvroModel);
+        }
+        return batchesByTopic;
+    }
+}
@@ -2,14 +2,26 @@ package com.microservices.demo.twitter.to.kafka.service.listener;
 
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
-import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.logging.PipelineLogging;
+import com.microservices.demo.kafka.producer.logging.PipelineStageLog;
+import com.microservices.demo.kafka.producer.metrics.PipelineStageTimers;
+import com.microservices.demo.twitter.to.kafka.service.capture.TweetCapture;
+import com.microservices.demo.twitter.to.kafka.service.dedup.DuplicateTweetFilter;
+import com.microservices.demo.twitter.to.kafka.service.handoff.HandOffBuffer;
+import com.microservices.demo.twitter.to.kafka.service.keyword.KeywordTagger;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterAvroModelPool;
 import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import twitter4j.Status;
 import twitter4j.StatusAdapter;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class TwitterKafkaStatusListener extends StatusAdapter {
 
@@ -17,22 +29,86 @@ public class TwitterKafkaStatusListener extends StatusAdapter {
 
     private final KafkaConfigData kafkaConfigData;
 
-    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+    private final HandOffBuffer<TwitterAvroModel> handOffBuffer;
 
     private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
 
+    private final DuplicateTweetFilter duplicateTweetFilter;
+
+    private final KeywordTagger keywordTagger;
+
+    private final TwitterAvroModelPool twitterAvroModelPool;
+
+    private final TweetCapture tweetCapture;
+
+    private final Counter unmatchedCounter;
+
+    private final Timer receiveTimer;
+
+    private final PipelineStageLog receiveLog;
+
     public TwitterKafkaStatusListener(KafkaConfigData configData,
-                                      KafkaProducer<Long, TwitterAvroModel> producer,
-                                      TwitterStatusToAvroTransformer transformer) {
+                                      HandOffBuffer<TwitterAvroModel> buffer,
+                                      TwitterStatusToAvroTransformer transformer,
+                                      DuplicateTweetFilter duplicateFilter,
+                                      KeywordTagger tagger,
+                                      TwitterAvroModelPool modelPool,
+                                      TweetCapture capture,
+                                      MeterRegistry meterRegistry,
+                                      PipelineLogging pipelineLogging) {
         this.kafkaConfigData = configData;
-        this.kafkaProducer = producer;
+        this.handOffBuffer = buffer;
         this.twitterStatusToAvroTransformer = transformer;
+        this.duplicateTweetFilter = duplicateFilter;
+        this.keywordTagger = tagger;
+        this.twitterAvroModelPool = modelPool;
+        this.tweetCapture = capture;
+        this.unmatchedCounter = Counter.builder("twitter.pipeline.keyword.unmatched")
+                .description("Tweets dropped because their text matched none of the keywords")
+                .register(meterRegistry);
+        this.receiveTimer = PipelineStageTimers.stageTimer(meterRegistry, "receive",
+                "Time spent on the stream thread from receiving a tweet until it is handed off");
+        this.receiveLog = pipelineLogging.stage("receive");
     }
 
     @Override
     public void onStatus(Status status) {
-        LOG.info("Received status text {} sending to kafka topic {}", status.getText(), kafkaConfigData.getTopicName());
+        long startNanos = System.nanoTime();
+        tweetCapture.capture(status);
+        if (duplicateTweetFilter.isDuplicate(status.getId())) {
+            return;
+        }
         TwitterAvroModel twitterAvroModel = twitterStatusToAvroTransformer.getTwitterAvroModelFromStatus(status);
-        kafkaProducer.send(kafkaConfigData.getTopicName(), twitterAvroModel.getUserId(), twitterAvroModel);
+        handOff(twitterAvroModel);
+        receiveTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Entry point for sources that already produce avro models, e.g. the mock stream runners. Duplicates are dropped
+     * the same way as in {@link #onStatus}.
+     */
+    public void onTwitterAvroModel(TwitterAvroModel twitterAvroModel) {
+        long startNanos = System.nanoTime();
+        tweetCapture.capture(twitterAvroModel);
+        if (duplicateTweetFilter.isDuplicate(twitterAvroModel.getId())) {
+            twitterAvroModelPool.release(twitterAvroModel);
+            return;
+        }
+        handOff(twitterAvroModel);
+        receiveTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void handOff(TwitterAvroModel twitterAvroModel) {
+        if (keywordTagger.isFilterEnabled() && twitterAvroModel.getKeywords().isEmpty()) {
+            unmatchedCounter.increment();
+            twitterAvroModelPool.release(twitterAvroModel);
+            return;
+        }
+        String text = twitterAvroModel.getText();
+        receiveLog.record(text != null ? PipelineStageLog.utf8Length(text) : 0);
+        if (receiveLog.isSampled()) {
+            LOG.info("Received status text {} sending to kafka topic {}", text, kafkaConfigData.getTopicName());
+        }
+        handOffBuffer.offer(twitterAvroModel);
     }
 }
@@ -0,0 +1,110 @@
+package com.microservices.demo.twitter.to.kafka.service.runner;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.metrics.ProducerBufferMonitor;
+import com.microservices.demo.twitter.to.kafka.service.handoff.HandOffBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses the stream runner while the producer buffer or the hand-off buffer is fuller than the high watermark and
+ * resumes it once both drained to the low watermark. The hand-off buffer usually fills first, since its sender
+ * threads stop taking records while their batches are unacknowledged. Without it a broker incident keeps the stream
+ * pushing tweets into the hand-off queue and the producer buffer until send blocks or memory runs out. The reactive
+ * pipeline has neither buffer, its sender's demand limits the records in flight instead.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnExpression("${twitter-to-kafka-service.backpressure-enabled:false} && " +
+        "'${twitter-to-kafka-service.pipeline-mode:listener}' == 'listener'")
+public class StreamBackpressure {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamBackpressure.class);
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final StreamRunner streamRunner;
+
+    private final ProducerBufferMonitor producerBufferMonitor;
+
+    private final HandOffBuffer<TwitterAvroModel> handOffBuffer;
+
+    private final WatermarkGate watermarkGate;
+
+    private final Counter pauseCounter;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stream-backpressure");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private volatile boolean paused;
+
+    public StreamBackpressure(TwitterToKafkaServiceConfigData configData,
+                              StreamRunner runner,
+                              ProducerBufferMonitor bufferMonitor,
+                              HandOffBuffer<TwitterAvroModel> buffer,
+                              MeterRegistry meterRegistry) {
+        this.twitterToKafkaServiceConfigData = configData;
+        this.streamRunner = runner;
+        this.producerBufferMonitor = bufferMonitor;
+        this.handOffBuffer = buffer;
+        this.watermarkGate = new WatermarkGate(configData.getBackpressureHighWatermark(),
+                configData.getBackpressureLowWatermark());
+        this.pauseCounter = Counter.builder("twitter.stream.backpressure.pauses")
+                .description("Times the stream was paused because a buffer reached the high watermark")
+                .register(meterRegistry);
+        Gauge.builder("twitter.stream.backpressure.paused", this, backpressure -> backpressure.paused ? 1 : 0)
+                .description("1 while the stream is paused for backpressure")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMs = twitterToKafkaServiceConfigData.getBackpressureCheckIntervalMs();
+        scheduler.scheduleWithFixedDelay(this::check, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void check() {
+        try {
+            double bufferUtilisation = producerBufferMonitor.getBufferUtilisation();
+            double handOffUtilisation = handOffBuffer.queueDepth() / (double) Math.max(handOffBuffer.capacity(), 1);
+            if (!watermarkGate.update(Math.max(bufferUtilisation, handOffUtilisation))) {
+                return;
+            }
+            paused = watermarkGate.isClosed();
+            if (paused) {
+                LOG.warn("Producer buffer utilisation {} or hand-off buffer utilisation {} reached the high " +
+                        "watermark, pausing the stream", bufferUtilisation, handOffUtilisation);
+                pauseCounter.increment();
+                streamRunner.pause();
+            } else {
+                LOG.info("Producer buffer utilisation {} and hand-off buffer utilisation {} are back at the low " +
+                        "watermark, resuming the stream", bufferUtilisation, handOffUtilisation);
+                streamRunner.resume();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not apply stream backpressure", e);
+        }
+    }
+}
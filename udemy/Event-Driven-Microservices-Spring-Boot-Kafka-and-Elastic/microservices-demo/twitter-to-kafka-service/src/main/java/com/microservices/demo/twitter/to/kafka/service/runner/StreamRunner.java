@@ -4,4 +4,31 @@ import twitter4j.TwitterException;
 
 public interface StreamRunner {
     void start() throws TwitterException;
+
+    /**
+     * Demand signal from downstream: stop taking new tweets from the source until {@link #resume()} is called.
+     * Runners that cannot hold back their source ignore it.
+     */
+    default void pause() {
+    }
+
+    default void resume() {
+    }
+
+    /**
+     * Stops taking tweets from the source for good. On shutdown it is called before the buffers behind the runner
+     * are drained, so that nothing new arrives while they are flushed.
+     */
+    default void shutdown() {
+    }
+
+    /**
+     * Called after {@link #shutdown()} by runners that send records themselves instead of handing them off: waits at
+     * most the timeout for those records to be acknowledged.
+     *
+     * @return the number of records still unacknowledged at the deadline
+     */
+    default long awaitSent(long timeoutMs) {
+        return 0;
+    }
 }
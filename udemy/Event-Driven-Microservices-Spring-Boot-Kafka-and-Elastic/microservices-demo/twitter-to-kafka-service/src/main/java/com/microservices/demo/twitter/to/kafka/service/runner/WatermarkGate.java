@@ -0,0 +1,43 @@
+package com.microservices.demo.twitter.to.kafka.service.runner;
+
+/**
+ * Hysteresis between a high and a low watermark: closes when a sampled value reaches the high watermark and opens
+ * again only once it dropped to the low watermark, so that a value hovering around one threshold does not toggle the
+ * stream on every sample.
+ */
+public class WatermarkGate {
+
+    private final double highWatermark;
+
+    private final double lowWatermark;
+
+    private boolean closed;
+
+    public WatermarkGate(double highWatermark, double lowWatermark) {
+        if (lowWatermark > highWatermark) {
+            throw new IllegalArgumentException("Low watermark " + lowWatermark + " is above high watermark " +
+                    highWatermark);
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * @return true if the sample changed the state of the gate
+     */
+    public boolean update(double value) {
+        if (!closed && value >= highWatermark) {
+            closed = true;
+            return true;
+        }
+        if (closed && value <= lowWatermark) {
+            closed = false;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,192 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.runner.mock.LatencyHistogram;
+import com.microservices.demo.twitter.to.kafka.service.runner.mock.MockTweetGenerator;
+import com.microservices.demo.twitter.to.kafka.service.runner.mock.ZipfianGenerator;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import twitter4j.TwitterException;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic high rate stream for load tests. A corpus of tweet texts and user ids is generated up front, with user ids
+ * optionally following a zipfian distribution to create partition hot spots, and replayed by worker threads at the
+ * target rate as avro models with fresh tweet ids.
+ * <p>
+ * Scheduling is open loop: every tweet has an intended send time derived from the target rate and latency is
+ * measured from that time until the listener accepted the tweet, so a stalled pipeline shows up as latency instead of
+ * silently lowering the offered rate. A target rate of 0 sends as fast as possible. For the same reason backpressure
+ * pauses are ignored: an overloaded pipeline must show up in the report.
+ */
+@Component
+@ConditionalOnExpression("${twitter-to-kafka-service.enable-mock-tweets:false} && " +
+        "'${twitter-to-kafka-service.pipeline-mode:listener}' == 'listener' && " +
+        "'${twitter-to-kafka-service.mock-stream-mode:sleep}' == 'load-generator'")
+public class LoadGeneratorKafkaStreamRunner implements StreamRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadGeneratorKafkaStreamRunner.class);
+
+    private static final long CORPUS_SEED = 42L;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long USER_ID_OFFSET = 1_000_000L;
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final TwitterKafkaStatusListener twitterKafkaStatusListener;
+
+    private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ExecutorService workerExecutor;
+
+    private volatile boolean running;
+
+    public LoadGeneratorKafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
+                                          TwitterKafkaStatusListener statusListener,
+                                          TwitterStatusToAvroTransformer transformer) {
+        this.twitterToKafkaServiceConfigData = configData;
+        this.twitterKafkaStatusListener = statusListener;
+        this.twitterStatusToAvroTransformer = transformer;
+    }
+
+    @Override
+    public void start() throws TwitterException {
+        int threads = twitterToKafkaServiceConfigData.getLoadGeneratorThreads();
+        long targetRate = twitterToKafkaServiceConfigData.getLoadGeneratorTargetRate();
+        long durationSeconds = twitterToKafkaServiceConfigData.getLoadGeneratorDurationSeconds();
+        Corpus corpus = generateCorpus();
+        LOG.info("Starting load generator with {} thread(s), target rate {} tweets/s, duration {} s",
+                threads, targetRate, durationSeconds);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        workerExecutor = Executors.newFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "load-generator-" + threadCount.incrementAndGet()));
+        running = true;
+        long intervalNanos = targetRate > 0 ? NANOS_PER_SECOND * threads / targetRate : 0;
+        long startNanos = System.nanoTime();
+        long endNanos = durationSeconds > 0 ? startNanos + TimeUnit.SECONDS.toNanos(durationSeconds) : Long.MAX_VALUE;
+        List<CompletableFuture<LatencyHistogram>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            long workerStartNanos = startNanos + intervalNanos * i / threads;
+            workers.add(CompletableFuture.supplyAsync(
+                    () -> generate(corpus, workerStartNanos, intervalNanos, endNanos), workerExecutor));
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                LOG.error("Load generator worker failed!", throwable);
+            }
+            report(workers, startNanos);
+        });
+    }
+
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (workerExecutor != null) {
+            workerExecutor.shutdown();
+        }
+    }
+
+    private Corpus generateCorpus() {
+        String[] keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
+        MockTweetGenerator mockTweetGenerator = new MockTweetGenerator(keywords,
+                twitterToKafkaServiceConfigData.getMockMinTweetLength(),
+                twitterToKafkaServiceConfigData.getMockMaxTweetLength());
+        ZipfianGenerator userIdGenerator = new ZipfianGenerator(
+                twitterToKafkaServiceConfigData.getLoadGeneratorUserCount(),
+                twitterToKafkaServiceConfigData.getLoadGeneratorZipfExponent());
+        Random random = new Random(CORPUS_SEED);
+        int corpusSize = twitterToKafkaServiceConfigData.getLoadGeneratorCorpusSize();
+        Corpus corpus = new Corpus(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            corpus.userIds[i] = USER_ID_OFFSET + userIdGenerator.next(random);
+            corpus.texts[i] = mockTweetGenerator.getRandomTweetContent(random);
+        }
+        LOG.info("Generated load generator corpus of {} tweets", corpusSize);
+        return corpus;
+    }
+
+    private LatencyHistogram generate(Corpus corpus, long workerStartNanos, long intervalNanos, long endNanos) {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        long intendedNanos = workerStartNanos;
+        while (running) {
+            long now = System.nanoTime();
+            if (intervalNanos > 0 && intendedNanos > now) {
+                LockSupport.parkNanos(intendedNanos - now);
+            } else if (intervalNanos == 0) {
+                intendedNanos = now;
+            }
+            if (intendedNanos >= endNanos || System.nanoTime() >= endNanos) {
+                break;
+            }
+            long id = sequence.getAndIncrement();
+            int index = (int) (id % corpus.texts.length);
+            try {
+                twitterKafkaStatusListener.onTwitterAvroModel(twitterStatusToAvroTransformer.getTwitterAvroModel(
+                        id, corpus.userIds[index], corpus.texts[index], System.currentTimeMillis()));
+            } catch (TwitterToKafkaServiceException e) {
+                LOG.warn("Load generator could not hand off tweet", e);
+            }
+            latencyHistogram.record(System.nanoTime() - intendedNanos);
+            intendedNanos += intervalNanos;
+        }
+        return latencyHistogram;
+    }
+
+    private void report(List<CompletableFuture<LatencyHistogram>> workers, long startNanos) {
+        double elapsedSeconds = (System.nanoTime() - startNanos) / (double) NANOS_PER_SECOND;
+        LatencyHistogram total = new LatencyHistogram();
+        for (CompletableFuture<LatencyHistogram> worker : workers) {
+            if (!worker.isCompletedExceptionally()) {
+                total.add(worker.join());
+            }
+        }
+        LOG.info("Load generator finished: {} tweets in {} s, throughput {} tweets/s, hand-off latency " +
+                        "p50 {} us, p99 {} us, p99.9 {} us, max {} us",
+                total.getTotalCount(),
+                String.format("%.1f", elapsedSeconds),
+                String.format("%.0f", total.getTotalCount() / elapsedSeconds),
+                micros(total.valueAtPercentile(50)),
+                micros(total.valueAtPercentile(99)),
+                micros(total.valueAtPercentile(99.9)),
+                micros(total.getMaxValue()));
+    }
+
+    private long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static final class Corpus {
+
+        private final long[] userIds;
+
+        private final String[] texts;
+
+        private Corpus(int size) {
+            this.userIds = new long[size];
+            this.texts = new String[size];
+        }
+    }
+}
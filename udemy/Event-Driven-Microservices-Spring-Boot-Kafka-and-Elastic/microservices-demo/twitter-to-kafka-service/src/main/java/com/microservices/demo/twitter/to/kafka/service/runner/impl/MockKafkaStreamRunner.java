@@ -4,24 +4,31 @@ import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
 import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
 import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
 import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.runner.mock.MockTweetGenerator;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
-import twitter4j.Status;
 import twitter4j.TwitterException;
-import twitter4j.TwitterObjectFactory;
 
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import javax.annotation.PreDestroy;
 import java.util.Arrays;
-import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Paced mock stream. Tweets are emitted directly as avro models, skipping the JSON formatting and parsing a real
+ * twitter4j status would need, so benchmark runs measure the kafka path rather than string handling. While paused for
+ * backpressure the loop waits instead of generating tweets.
+ */
 @Component
-@ConditionalOnProperty(name = "twitter-to-kafka-service.enable-mock-tweets", havingValue = "true")
+@ConditionalOnExpression("${twitter-to-kafka-service.enable-mock-tweets:false} && " +
+        "'${twitter-to-kafka-service.pipeline-mode:listener}' == 'listener' && " +
+        "'${twitter-to-kafka-service.mock-stream-mode:sleep}' == 'sleep'")
 public class MockKafkaStreamRunner implements StreamRunner {
 
     private static final Logger LOG = LoggerFactory.getLogger(MockKafkaStreamRunner.class);
@@ -30,46 +37,27 @@ public class MockKafkaStreamRunner implements StreamRunner {
 
     private final TwitterKafkaStatusListener twitterKafkaStatusListener;
 
+    private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
+
     private static final Random RANDOM = new Random();
 
-    private static final String[] WORDS = new String[]{
-            "Lorem",
-            "ipsum",
-            "dolor",
-            "sit",
-            "amet",
-            "consectetuer",
-            "adipiscing",
-            "elit",
-            "Maecenas",
-            "porttitor",
-            "congue",
-            "massa",
-            "Fusce",
-            "posuere",
-            "magna",
-            "sed",
-            "pulvinar",
-            "ultricies",
-            "purus",
-            "lectus",
-            "malesuada",
-            "libero"
-    };
-
-    private static final String tweetAsRawJson = "{" +
-            "\"created_at\":\"{0}\"," +
-            "\"id\":\"{1}\"," +
-            "\"text\":\"{2}\"," +
-            "\"user\":{\"id\":\"{3}\"}" +
-            "}";
-
-    private static final String TWITTER_STATUS_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final long STOP_TIMEOUT_MS = 1000;
+
+    private final ExecutorService streamExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "mock-tweet-stream"));
+
+    private volatile boolean running = true;
+
+    private final Object pauseLock = new Object();
+
+    private boolean paused;
 
     public MockKafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
-                                 TwitterKafkaStatusListener statusListener) {
+                                 TwitterKafkaStatusListener statusListener,
+                                 TwitterStatusToAvroTransformer transformer) {
         this.twitterToKafkaServiceConfigData = configData;
         this.twitterKafkaStatusListener = statusListener;
+        this.twitterStatusToAvroTransformer = transformer;
     }
 
     @Override
@@ -79,65 +67,84 @@ public class MockKafkaStreamRunner implements StreamRunner {
         final int maxTweetLength = twitterToKafkaServiceConfigData.getMockMaxTweetLength();
         long sleepTimeMs = twitterToKafkaServiceConfigData.getMockSleepMs();
         LOG.info("Starting mock filtering twitter streams for keywords {}", Arrays.toString(keywords));
-        simulateTwitterStream(keywords, minTweetLength, maxTweetLength, sleepTimeMs);
+        simulateTwitterStream(new MockTweetGenerator(keywords, minTweetLength, maxTweetLength), sleepTimeMs);
     }
 
-    private void simulateTwitterStream(String[] keywords, int minTweetLength, int maxTweetLength, long sleepTimeMs) {
-        Executors.newSingleThreadExecutor().submit(() -> {
-            try {
-                while (true) {
-                    String formattedTweetAsRawJson = getFormattedTweet(keywords, minTweetLength, maxTweetLength);
-                    Status status = TwitterObjectFactory.createStatus(formattedTweetAsRawJson);
-                    twitterKafkaStatusListener.onStatus(status);
-                    sleep(sleepTimeMs);
-                }
-            } catch (TwitterException e) {
-                LOG.error("Error creating twitter status!", e);
-            }
-        });
+    @Override
+    public void pause() {
+        synchronized (pauseLock) {
+            paused = true;
+        }
     }
 
-    private void sleep(long sleepTimeMs) {
+    @Override
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops generating tweets; a tweet that is being handed off when it is called still reaches the listener.
+     */
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        streamExecutor.shutdownNow();
         try {
-            Thread.sleep(sleepTimeMs);
+            if (!streamExecutor.awaitTermination(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Mock tweet stream did not stop within {} ms", STOP_TIMEOUT_MS);
+            }
         } catch (InterruptedException e) {
-            throw new TwitterToKafkaServiceException("Error while sleeping for waiting new status to create!!");
+            Thread.currentThread().interrupt();
         }
     }
 
-    private String getFormattedTweet(String[] keywords, int minTweetLength, int maxTweetLength) {
-        String[] params = new String[]{
-                ZonedDateTime.now().format(DateTimeFormatter.ofPattern(TWITTER_STATUS_DATE_FORMAT, Locale.ENGLISH)),
-                String.valueOf(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)),
-                getRandomTweetContent(keywords, minTweetLength, maxTweetLength),
-                String.valueOf(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE))
-        };
-        return formatTweetAsJsonWithParams(params);
+    private void simulateTwitterStream(MockTweetGenerator mockTweetGenerator, long sleepTimeMs) {
+        streamExecutor.submit(() -> {
+            while (running) {
+                awaitResume();
+                if (!running) {
+                    return;
+                }
+                twitterKafkaStatusListener.onTwitterAvroModel(twitterStatusToAvroTransformer.getTwitterAvroModel(
+                        ThreadLocalRandom.current().nextLong(Long.MAX_VALUE),
+                        ThreadLocalRandom.current().nextLong(Long.MAX_VALUE),
+                        mockTweetGenerator.getRandomTweetContent(RANDOM),
+                        System.currentTimeMillis()));
+                sleep(sleepTimeMs);
+            }
+        });
     }
 
-    private String formatTweetAsJsonWithParams(String[] params) {
-        String tweet = tweetAsRawJson;
-
-        for (int i = 0; i < params.length; i++) {
-            tweet = tweet.replace("{" + i + "}", params[i]);
+    private void awaitResume() {
+        synchronized (pauseLock) {
+            while (paused) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    onInterrupted("Error while waiting for the stream to resume!!");
+                    return;
+                }
+            }
         }
-        return tweet;
     }
 
-    private String getRandomTweetContent(String[] keywords, int minTweetLength, int maxTweetLength) {
-        StringBuilder tweet = new StringBuilder();
-        int tweetLength = RANDOM.nextInt(maxTweetLength - minTweetLength + 1) + minTweetLength;
-        return constructRandomTweet(keywords, tweet, tweetLength);
+    private void sleep(long sleepTimeMs) {
+        try {
+            Thread.sleep(sleepTimeMs);
+        } catch (InterruptedException e) {
+            onInterrupted("Error while sleeping for waiting new status to create!!");
+        }
     }
 
-    private String constructRandomTweet(String[] keywords, StringBuilder tweet, int tweetLength) {
-        for (int i = 0; i < tweetLength; i++) {
-            tweet.append(WORDS[RANDOM.nextInt(WORDS.length)]).append(" ");
-            if (i == tweetLength / 2) {
-                tweet.append(keywords[RANDOM.nextInt(keywords.length)]).append(" ");
-            }
+    private void onInterrupted(String message) {
+        Thread.currentThread().interrupt();
+        if (running) {
+            throw new TwitterToKafkaServiceException(message);
         }
-        return tweet.toString().trim();
     }
 
 }
@@ -0,0 +1,300 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.impl;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.microservices.demo.kafka.producer.guard.ProducerGuard;
+import com.microservices.demo.kafka.producer.reactive.ReactiveKafkaSender;
+import com.microservices.demo.kafka.producer.reactive.ReactiveSendResult;
+import com.microservices.demo.twitter.to.kafka.service.capture.TweetCapture;
+import com.microservices.demo.twitter.to.kafka.service.dedup.DuplicateTweetFilter;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.keyword.KeywordTagger;
+import com.microservices.demo.twitter.to.kafka.service.keyword.KeywordTopicRouter;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.runner.mock.MockTweetGenerator;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterAvroModelPool;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import twitter4j.FilterQuery;
+import twitter4j.Status;
+import twitter4j.StatusAdapter;
+import twitter4j.TwitterException;
+import twitter4j.TwitterStream;
+import twitter4j.TwitterStreamFactory;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alternative to the listener and hand-off buffer pipeline: the tweet flow is one {@link Flux} from the source through
+ * dedup and transformation to {@link ReactiveKafkaSender}, which requests at most max-in-flight unacknowledged
+ * records from upstream.
+ * <p>
+ * The mock source generates tweets on demand, so a slow broker slows it down. The twitter stream pushes tweets
+ * regardless of demand; up to reactive-source-buffer-size of them wait for the sender and beyond that the oldest are
+ * dropped, like the drop-oldest hand-off overflow policy.
+ * <p>
+ * The sender is built from the same producer config as {@link TwitterKafkaProducer}. Tweets are captured, deduplicated
+ * and let through the {@link ProducerGuard} as steps of the flux, and every result is recorded through the producer,
+ * so the guard, ack and lag timers, partition counters and time to first record see the same records as in the
+ * listener pipeline. The demand of the sender takes the place of stream backpressure. Spilling needs the spilling
+ * producer, so startup fails if it is enabled together with this pipeline.
+ */
+@Component
+@ConditionalOnExpression("'${twitter-to-kafka-service.pipeline-mode:listener}' == 'reactive'")
+public class ReactiveKafkaStreamRunner implements StreamRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveKafkaStreamRunner.class);
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final KafkaConfigData kafkaConfigData;
+
+    private final ReactiveKafkaSender<Long, TwitterAvroModel> reactiveKafkaSender;
+
+    private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
+
+    private final DuplicateTweetFilter duplicateTweetFilter;
+
+    private final KeywordTagger keywordTagger;
+
+    private final KeywordTopicRouter keywordTopicRouter;
+
+    private final TwitterAvroModelPool twitterAvroModelPool;
+
+    private final TwitterKafkaProducer twitterKafkaProducer;
+
+    private final ProducerGuard producerGuard;
+
+    private final TweetCapture tweetCapture;
+
+    private final Counter unmatchedCounter;
+
+    private final Counter sourceDroppedCounter;
+
+    private final Counter failedCounter;
+
+    private final Scheduler sourceScheduler = Schedulers.newSingle("reactive-stream-source");
+
+    private TwitterStream twitterStream;
+
+    private final MonoProcessor<Boolean> stopSignal = MonoProcessor.create();
+
+    private final AtomicLong outstanding = new AtomicLong();
+
+    private volatile CountDownLatch completed;
+
+    public ReactiveKafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
+                                     KafkaConfigData kafkaConfigData,
+                                     KafkaProducerConfigData producerConfigData,
+                                     ReactiveKafkaSender<Long, TwitterAvroModel> sender,
+                                     TwitterKafkaProducer producer,
+                                     ProducerGuard guard,
+                                     TweetCapture capture,
+                                     TwitterStatusToAvroTransformer transformer,
+                                     DuplicateTweetFilter duplicateFilter,
+                                     KeywordTagger tagger,
+                                     KeywordTopicRouter topicRouter,
+                                     TwitterAvroModelPool modelPool,
+                                     MeterRegistry meterRegistry) {
+        if (Boolean.TRUE.equals(producerConfigData.getSpillEnabled())) {
+            throw new TwitterToKafkaServiceException("kafka-producer-config.spill-enabled is not supported with " +
+                    "twitter-to-kafka-service.pipeline-mode reactive!");
+        }
+        this.twitterToKafkaServiceConfigData = configData;
+        this.kafkaConfigData = kafkaConfigData;
+        this.reactiveKafkaSender = sender;
+        this.twitterKafkaProducer = producer;
+        this.producerGuard = guard;
+        this.tweetCapture = capture;
+        this.twitterStatusToAvroTransformer = transformer;
+        this.duplicateTweetFilter = duplicateFilter;
+        this.keywordTagger = tagger;
+        this.keywordTopicRouter = topicRouter;
+        this.twitterAvroModelPool = modelPool;
+        this.unmatchedCounter = Counter.builder("twitter.pipeline.keyword.unmatched")
+                .description("Tweets dropped because their text matched none of the keywords")
+                .register(meterRegistry);
+        this.sourceDroppedCounter = Counter.builder("twitter.pipeline.reactive.source.dropped")
+                .description("Tweets dropped because the reactive source buffer was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("twitter.pipeline.reactive.failed")
+                .description("Tweets the reactive sender could not send")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() throws TwitterException {
+        Flux<TwitterAvroModel> source = Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getEnableMockTweets()) ?
+                mockSource() : twitterSource();
+        CountDownLatch pipelineCompleted = new CountDownLatch(1);
+        completed = pipelineCompleted;
+        reactiveKafkaSender.send(source.takeUntilOther(stopSignal).filter(this::isMatched).filter(this::isPermitted)
+                                .doOnNext(twitterAvroModel -> outstanding.incrementAndGet()),
+                        this::topicFor, TwitterAvroModel::getUserId)
+                .subscribe(this::onResult, throwable -> {
+                    LOG.error("Reactive pipeline failed!", throwable);
+                    pipelineCompleted.countDown();
+                }, () -> {
+                    LOG.info("Reactive pipeline completed");
+                    pipelineCompleted.countDown();
+                });
+        LOG.info("Started reactive pipeline for keywords {}", twitterToKafkaServiceConfigData.getTwitterKeywords());
+    }
+
+    /**
+     * Completes the source, so that the sender still receives the results of records in flight; they are only
+     * abandoned when the sender is closed.
+     */
+    @Override
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (twitterStream != null) {
+            LOG.info("Closing twitter stream!");
+            twitterStream.shutdown();
+            twitterStream = null;
+        }
+        stopSignal.onNext(true);
+        sourceScheduler.dispose();
+    }
+
+    /**
+     * Waits for the pipeline to complete, that is for the results of all records in flight, then closes the sender
+     * with the time left, which fails the records still unacknowledged.
+     */
+    @Override
+    public long awaitSent(long timeoutMs) {
+        CountDownLatch pipelineCompleted = completed;
+        if (pipelineCompleted == null) {
+            return 0;
+        }
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            if (!pipelineCompleted.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Reactive pipeline did not complete within {} ms", timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long unacknowledged = outstanding.get();
+        reactiveKafkaSender.close(Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime())));
+        return unacknowledged;
+    }
+
+    private Flux<TwitterAvroModel> mockSource() {
+        String[] keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
+        MockTweetGenerator mockTweetGenerator = new MockTweetGenerator(keywords,
+                twitterToKafkaServiceConfigData.getMockMinTweetLength(),
+                twitterToKafkaServiceConfigData.getMockMaxTweetLength());
+        Random random = new Random();
+        Flux<TwitterAvroModel> tweets = Flux.<TwitterAvroModel>generate(sink ->
+                sink.next(twitterStatusToAvroTransformer.getTwitterAvroModel(
+                        ThreadLocalRandom.current().nextLong(Long.MAX_VALUE),
+                        ThreadLocalRandom.current().nextLong(Long.MAX_VALUE),
+                        mockTweetGenerator.getRandomTweetContent(random),
+                        System.currentTimeMillis())))
+                .doOnNext(tweetCapture::capture)
+                .filter(this::isNew)
+                .subscribeOn(sourceScheduler);
+        long sleepTimeMs = twitterToKafkaServiceConfigData.getMockSleepMs();
+        return sleepTimeMs > 0 ? tweets.delayElements(Duration.ofMillis(sleepTimeMs), sourceScheduler) : tweets;
+    }
+
+    private Flux<TwitterAvroModel> twitterSource() {
+        String[] keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
+        return Flux.<Status>create(sink -> {
+                    twitterStream = new TwitterStreamFactory().getInstance();
+                    twitterStream.addListener(statusAdapter(sink));
+                    twitterStream.filter(new FilterQuery(keywords));
+                    LOG.info("Started filtering twitter stream for keywords {}", Arrays.toString(keywords));
+                }, FluxSink.OverflowStrategy.BUFFER)
+                .onBackpressureBuffer(twitterToKafkaServiceConfigData.getReactiveSourceBufferSize(),
+                        status -> sourceDroppedCounter.increment(), BufferOverflowStrategy.DROP_OLDEST)
+                .publishOn(sourceScheduler)
+                .doOnNext(tweetCapture::capture)
+                .filter(status -> !duplicateTweetFilter.isDuplicate(status.getId()))
+                .map(twitterStatusToAvroTransformer::getTwitterAvroModelFromStatus);
+    }
+
+    private StatusAdapter statusAdapter(FluxSink<Status> sink) {
+        return new StatusAdapter() {
+            @Override
+            public void onStatus(Status status) {
+                sink.next(status);
+            }
+        };
+    }
+
+    private boolean isNew(TwitterAvroModel twitterAvroModel) {
+        if (duplicateTweetFilter.isDuplicate(twitterAvroModel.getId())) {
+            twitterAvroModelPool.release(twitterAvroModel);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isMatched(TwitterAvroModel twitterAvroModel) {
+        if (keywordTagger.isFilterEnabled() && twitterAvroModel.getKeywords().isEmpty()) {
+            unmatchedCounter.increment();
+            twitterAvroModelPool.release(twitterAvroModel);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies the guard fallback to tweets the guard does not let through: with the spill fallback they are reported
+     * as failed, like failures of the send call, otherwise they are only counted by the guard.
+     */
+    private boolean isPermitted(TwitterAvroModel twitterAvroModel) {
+        if (producerGuard.tryAcquire(1) == 1) {
+            return true;
+        }
+        producerGuard.rejected(Collections.singletonList(twitterAvroModel)).forEach(failure -> {
+            failedCounter.increment();
+            twitterKafkaProducer.recordOutcome(topicFor(twitterAvroModel), twitterAvroModel, null,
+                    failure.getCause(), 0);
+        });
+        twitterAvroModelPool.release(twitterAvroModel);
+        return false;
+    }
+
+    private String topicFor(TwitterAvroModel twitterAvroModel) {
+        String defaultTopicName = kafkaConfigData.getTopicName();
+        return keywordTopicRouter.isEnabled() ? keywordTopicRouter.topicFor(twitterAvroModel, defaultTopicName) :
+                defaultTopicName;
+    }
+
+    private void onResult(ReactiveSendResult<TwitterAvroModel> result) {
+        TwitterAvroModel twitterAvroModel = result.correlationMetadata();
+        if (result.exception() != null) {
+            failedCounter.increment();
+        }
+        twitterKafkaProducer.recordOutcome(result.recordMetadata() != null ? result.recordMetadata().topic() :
+                        topicFor(twitterAvroModel), twitterAvroModel, result.recordMetadata(), result.exception(),
+                result.getAckLatencyNanos());
+        twitterAvroModelPool.release(twitterAvroModel);
+        outstanding.decrementAndGet();
+    }
+}
@@ -0,0 +1,200 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.segment.SegmentLog;
+import com.microservices.demo.twitter.to.kafka.service.capture.CapturedTweet;
+import com.microservices.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.microservices.demo.twitter.to.kafka.service.transformer.TwitterStatusToAvroTransformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import twitter4j.TwitterException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays back tweets recorded by {@link com.microservices.demo.twitter.to.kafka.service.capture.TweetCapture} from
+ * capture-directory, through the status listener like a live stream. Tweets are transformed again, so dedup and the
+ * current keywords apply to them like to received tweets. The gaps between arrivals are kept, divided by
+ * replay-speed, so 1 replays in real time, 10 ten times faster and 0 as fast as possible. Gaps are capped at
+ * replay-max-gap-ms, e.g. for captures spanning a restart. Tweets keep their captured ids and texts, so replays of the
+ * same capture are deterministic. The capture is not consumed and can be replayed again.
+ */
+@Component
+@ConditionalOnExpression("${twitter-to-kafka-service.enable-mock-tweets:false} && " +
+        "'${twitter-to-kafka-service.pipeline-mode:listener}' == 'listener' && " +
+        "'${twitter-to-kafka-service.mock-stream-mode:sleep}' == 'replay'")
+public class ReplayKafkaStreamRunner implements StreamRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayKafkaStreamRunner.class);
+
+    private static final int READ_BATCH_SIZE = 1000;
+
+    private static final long STOP_TIMEOUT_MS = 1000;
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final TwitterKafkaStatusListener twitterKafkaStatusListener;
+
+    private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
+
+    private final ExecutorService replayExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "tweet-replay"));
+
+    private final Object pauseLock = new Object();
+
+    private boolean paused;
+
+    private volatile boolean running = true;
+
+    public ReplayKafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
+                                   TwitterKafkaStatusListener statusListener,
+                                   TwitterStatusToAvroTransformer transformer) {
+        this.twitterToKafkaServiceConfigData = configData;
+        this.twitterKafkaStatusListener = statusListener;
+        this.twitterStatusToAvroTransformer = transformer;
+    }
+
+    @Override
+    public void start() throws TwitterException {
+        Path captureDirectory = Paths.get(twitterToKafkaServiceConfigData.getCaptureDirectory());
+        if (!Files.isDirectory(captureDirectory)) {
+            throw new TwitterToKafkaServiceException("No tweet capture found in " + captureDirectory);
+        }
+        SegmentLog captureLog = new SegmentLog(captureDirectory,
+                twitterToKafkaServiceConfigData.getCaptureSegmentSizeBytes(),
+                twitterToKafkaServiceConfigData.getCaptureMaxSegments());
+        double speed = twitterToKafkaServiceConfigData.getReplaySpeed();
+        LOG.info("Replaying {} captured tweet(s) from {} at {}", captureLog.getPendingRecords(), captureDirectory,
+                speed > 0 ? speed + "x speed" : "maximum speed");
+        replayExecutor.submit(() -> {
+            try {
+                replay(captureLog, speed);
+            } catch (RuntimeException e) {
+                if (running && !Thread.currentThread().isInterrupted()) {
+                    LOG.error("Tweet replay failed!", e);
+                } else {
+                    LOG.info("Tweet replay stopped");
+                }
+            } finally {
+                captureLog.close();
+            }
+        });
+    }
+
+    @Override
+    public void pause() {
+        synchronized (pauseLock) {
+            paused = true;
+        }
+    }
+
+    @Override
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        replayExecutor.shutdownNow();
+        try {
+            if (!replayExecutor.awaitTermination(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Tweet replay did not stop within {} ms", STOP_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void replay(SegmentLog captureLog, double speed) {
+        long maxGapMicros = TimeUnit.MILLISECONDS.toMicros(twitterToKafkaServiceConfigData.getReplayMaxGapMs());
+        SegmentLog.Cursor cursor = captureLog.cursor();
+        long startNanos = System.nanoTime();
+        long intendedNanos = 0;
+        long previousArrivalMicros = -1;
+        long replayed = 0;
+        List<ByteBuffer> payloads;
+        while (running && !(payloads = cursor.next(READ_BATCH_SIZE)).isEmpty()) {
+            for (ByteBuffer payload : payloads) {
+                CapturedTweet capturedTweet;
+                try {
+                    capturedTweet = CapturedTweet.decode(payload);
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Skipping unreadable captured tweet", e);
+                    continue;
+                }
+                if (previousArrivalMicros < 0) {
+                    intendedNanos = System.nanoTime();
+                } else if (speed > 0) {
+                    long gapMicros = Math.min(Math.max(0, capturedTweet.getArrivalMicros() - previousArrivalMicros),
+                            maxGapMicros);
+                    intendedNanos += (long) (TimeUnit.MICROSECONDS.toNanos(gapMicros) / speed);
+                }
+                previousArrivalMicros = capturedTweet.getArrivalMicros();
+                intendedNanos += awaitResume();
+                if (!awaitIntendedTime(intendedNanos)) {
+                    break;
+                }
+                onCapturedTweet(capturedTweet);
+                replayed++;
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        LOG.info("Tweet replay finished: {} tweet(s) in {} s", replayed, String.format("%.1f", elapsedSeconds));
+    }
+
+    void onCapturedTweet(CapturedTweet capturedTweet) {
+        TwitterAvroModel captured = capturedTweet.getTwitterAvroModel();
+        twitterKafkaStatusListener.onTwitterAvroModel(twitterStatusToAvroTransformer.getTwitterAvroModel(
+                captured.getId(), captured.getUserId(), captured.getText(),
+                captured.getCreatedAt() != null ? captured.getCreatedAt() : 0L));
+    }
+
+    /**
+     * @return nanoseconds spent paused, by which the rest of the replay is shifted to keep the captured gaps
+     */
+    private long awaitResume() {
+        synchronized (pauseLock) {
+            if (!paused) {
+                return 0;
+            }
+            long pausedNanos = System.nanoTime();
+            while (paused && running) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return System.nanoTime() - pausedNanos;
+        }
+    }
+
+    private boolean awaitIntendedTime(long intendedNanos) {
+        for (long waitNanos = intendedNanos - System.nanoTime(); waitNanos > 0 && running;
+             waitNanos = intendedNanos - System.nanoTime()) {
+            LockSupport.parkNanos(waitNanos);
+        }
+        return running && !Thread.currentThread().isInterrupted();
+    }
+}
@@ -5,7 +5,7 @@ import com.microservices.demo.twitter.to.kafka.service.listener.TwitterKafkaStat
 import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 import twitter4j.FilterQuery;
 import twitter4j.TwitterException;
@@ -15,8 +15,14 @@ import twitter4j.TwitterStreamFactory;
 import javax.annotation.PreDestroy;
 import java.util.Arrays;
 
+/**
+ * Filters the twitter stream for the configured keywords. Pausing for backpressure disconnects the stream and
+ * resuming connects it again with the same filter; tweets published while paused are not received, as the streaming
+ * API cannot replay them, which keeps memory bounded during broker incidents.
+ */
 @Component
-@ConditionalOnProperty(name = "twitter-to-kafka-service.enable-mock-tweets", havingValue = "false", matchIfMissing = true)
+@ConditionalOnExpression("!${twitter-to-kafka-service.enable-mock-tweets:false} && " +
+        "'${twitter-to-kafka-service.pipeline-mode:listener}' == 'listener'")
 public class TwitterKafkaStreamRunner implements StreamRunner {
 
     private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaStreamRunner.class);
@@ -27,6 +33,8 @@ public class TwitterKafkaStreamRunner implements StreamRunner {
 
     private TwitterStream twitterStream;
 
+    private boolean paused;
+
     public TwitterKafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
                                     TwitterKafkaStatusListener statusListener) {
         this.twitterToKafkaServiceConfigData = configData;
@@ -34,17 +42,36 @@ public class TwitterKafkaStreamRunner implements StreamRunner {
     }
 
     @Override
-    public void start() throws TwitterException {
+    public synchronized void start() throws TwitterException {
         twitterStream = new TwitterStreamFactory().getInstance();
         twitterStream.addListener(twitterKafkaStatusListener);
         addFilter();
     }
 
+    @Override
+    public synchronized void pause() {
+        if (twitterStream != null && !paused) {
+            paused = true;
+            twitterStream.cleanUp();
+            LOG.info("Paused twitter stream");
+        }
+    }
+
+    @Override
+    public synchronized void resume() {
+        if (twitterStream != null && paused) {
+            paused = false;
+            addFilter();
+        }
+    }
+
+    @Override
     @PreDestroy
-    public void shutdown() {
+    public synchronized void shutdown() {
         if (twitterStream != null) {
             LOG.info("Closing twitter stream!");
             twitterStream.shutdown();
+            twitterStream = null;
         }
     }
 
@@ -0,0 +1,62 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.mock;
+
+import java.util.Random;
+
+/**
+ * Builds random lorem ipsum tweet texts containing one of the configured keywords, shared by the mock stream runners.
+ */
+public class MockTweetGenerator {
+
+    private static final String[] WORDS = new String[]{
+            "Lorem",
+            "ipsum",
+            "dolor",
+            "sit",
+            "amet",
+            "consectetuer",
+            "adipiscing",
+            "elit",
+            "Maecenas",
+            "porttitor",
+            "congue",
+            "massa",
+            "Fusce",
+            "posuere",
+            "magna",
+            "sed",
+            "pulvinar",
+            "ultricies",
+            "purus",
+            "lectus",
+            "malesuada",
+            "libero"
+    };
+
+    private final String[] keywords;
+
+    private final int minTweetLength;
+
+    private final int maxTweetLength;
+
+    public MockTweetGenerator(String[] keywords, int minTweetLength, int maxTweetLength) {
+        this.keywords = keywords;
+        this.minTweetLength = minTweetLength;
+        this.maxTweetLength = maxTweetLength;
+    }
+
+    public String getRandomTweetContent(Random random) {
+        StringBuilder tweet = new StringBuilder();
+        int tweetLength = random.nextInt(maxTweetLength - minTweetLength + 1) + minTweetLength;
+        return constructRandomTweet(random, tweet, tweetLength);
+    }
+
+    private String constructRandomTweet(Random random, StringBuilder tweet, int tweetLength) {
+        for (int i = 0; i < tweetLength; i++) {
+            tweet.append(WORDS[random.nextInt(WORDS.length)]).append(" ");
+            if (i == tweetLength / 2) {
+                tweet.append(keywords[random.nextInt(keywords.length)]).append(" ");
+            }
+        }
+        return tweet.toString().trim();
+    }
+}
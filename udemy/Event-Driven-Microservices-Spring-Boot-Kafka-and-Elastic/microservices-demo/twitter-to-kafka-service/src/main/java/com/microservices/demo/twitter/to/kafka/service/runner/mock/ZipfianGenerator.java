@@ -0,0 +1,32 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.mock;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks in [0, itemCount) with probability proportional to 1 / (rank + 1)^exponent using a precomputed
+ * cumulative distribution, so any exponent works and rank 0 is the hottest item. An exponent of 0 gives a uniform
+ * distribution.
+ */
+public class ZipfianGenerator {
+
+    private final double[] cumulativeProbabilities;
+
+    public ZipfianGenerator(int itemCount, double exponent) {
+        cumulativeProbabilities = new double[itemCount];
+        double sum = 0;
+        for (int rank = 0; rank < itemCount; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulativeProbabilities[rank] = sum;
+        }
+        for (int rank = 0; rank < itemCount; rank++) {
+            cumulativeProbabilities[rank] /= sum;
+        }
+    }
+
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulativeProbabilities.length - 1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.microservices.demo.twitter.to.kafka.service.shutdown;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.twitter.to.kafka.service.handoff.HandOffBuffer;
+import com.microservices.demo.twitter.to.kafka.service.runner.StreamRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered shutdown of the data path. Lifecycle beans are stopped before any bean is destroyed, so this runs while the
+ * producer is still open: the stream runner stops first and waits for the records it sends itself, the hand-off buffer
+ * is drained into the producer, and the producer is flushed, all within shutdown-timeout-ms. The producer is closed
+ * afterwards by its own destroy method, which fails records still in flight.
+ */
+@Component
+public class GracefulShutdown implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GracefulShutdown.class);
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    private final StreamRunner streamRunner;
+
+    private final HandOffBuffer<TwitterAvroModel> handOffBuffer;
+
+    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+
+    private volatile boolean running;
+
+    public GracefulShutdown(TwitterToKafkaServiceConfigData configData,
+                            StreamRunner runner,
+                            HandOffBuffer<TwitterAvroModel> buffer,
+                            KafkaProducer<Long, TwitterAvroModel> producer) {
+        this.twitterToKafkaServiceConfigData = configData;
+        this.streamRunner = runner;
+        this.handOffBuffer = buffer;
+        this.kafkaProducer = producer;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        long timeoutMs = twitterToKafkaServiceConfigData.getShutdownTimeoutMs();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        LOG.info("Shutting down, draining in-flight tweets for at most {} ms", timeoutMs);
+
+        streamRunner.shutdown();
+        long runnerUnacknowledged = streamRunner.awaitSent(remainingMs(deadlineNanos));
+
+        int buffered = handOffBuffer.queueDepth();
+        int dropped = handOffBuffer.drainAndStop(remainingMs(deadlineNanos));
+
+        long inFlight = kafkaProducer.inFlightCount();
+        long unacknowledged = kafkaProducer.flush(remainingMs(deadlineNanos));
+
+        LOG.info("Shutdown drain finished: {} of {} buffered record(s) handed to the producer, {} dropped; " +
+                        "{} of {} in-flight record(s) flushed, {} left unacknowledged at the deadline; " +
+                        "{} record(s) sent by the stream runner left unacknowledged",
+                buffered - dropped, buffered, dropped, inFlight - unacknowledged, inFlight, unacknowledged,
+                runnerUnacknowledged);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private long remainingMs(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.microservices.demo.twitter.to.kafka.service.startup;
+
+import com.microservices.demo.kafka.producer.metrics.FirstRecordAcknowledgedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup benchmark support: shuts the application down once the first record was acknowledged, so that repeated
+ * runs (see startup-benchmark.sh) can measure time to first record. The shutdown runs on its own thread, since the
+ * event is published from the kafka producer callback thread.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "twitter-to-kafka-service.exit-after-first-record", havingValue = "true")
+public class ExitAfterFirstRecord {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExitAfterFirstRecord.class);
+
+    private final ApplicationContext applicationContext;
+
+    public ExitAfterFirstRecord(ApplicationContext context) {
+        this.applicationContext = context;
+    }
+
+    @EventListener
+    public void onFirstRecordAcknowledged(FirstRecordAcknowledgedEvent event) {
+        LOG.info("First record acknowledged after {} ms, exiting", event.getTimeToFirstRecordMs());
+        new Thread(() -> System.exit(SpringApplication.exit(applicationContext)), "exit-after-first-record").start();
+    }
+}
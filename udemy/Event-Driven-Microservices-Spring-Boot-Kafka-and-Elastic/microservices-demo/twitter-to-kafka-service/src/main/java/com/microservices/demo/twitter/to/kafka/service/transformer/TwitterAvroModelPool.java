@@ -0,0 +1,53 @@
+package com.microservices.demo.twitter.to.kafka.service.transformer;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of recycled {@link TwitterAvroModel} instances. Models are acquired on the stream thread and released
+ * by the hand-off sender threads once their batch has been sent, so the pool is shared rather than thread local.
+ * When pooling is disabled acquire always allocates and release is a no-op.
+ */
+@Component
+public class TwitterAvroModelPool {
+
+    private final boolean enabled;
+
+    private final BlockingQueue<TwitterAvroModel> pool;
+
+    public TwitterAvroModelPool(TwitterToKafkaServiceConfigData configData) {
+        this.enabled = Boolean.TRUE.equals(configData.getEnableAvroModelPooling());
+        this.pool = new ArrayBlockingQueue<>(enabled ? configData.getAvroModelPoolSize() : 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TwitterAvroModel acquire() {
+        TwitterAvroModel twitterAvroModel = enabled ? pool.poll() : null;
+        return twitterAvroModel != null ? twitterAvroModel : new TwitterAvroModel();
+    }
+
+    public void release(TwitterAvroModel twitterAvroModel) {
+        if (enabled) {
+            twitterAvroModel.setText(null);
+            twitterAvroModel.setCreatedAt(null);
+            if (twitterAvroModel.getKeywords() != null) {
+                twitterAvroModel.getKeywords().clear();
+            }
+            pool.offer(twitterAvroModel);
+        }
+    }
+
+    public void releaseAll(List<TwitterAvroModel> twitterAvroModels) {
+        if (enabled) {
+            twitterAvroModels.forEach(this::release);
+        }
+    }
+}
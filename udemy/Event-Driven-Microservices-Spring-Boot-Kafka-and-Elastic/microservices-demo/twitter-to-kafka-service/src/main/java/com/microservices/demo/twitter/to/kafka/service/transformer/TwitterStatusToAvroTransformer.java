@@ -1,19 +1,74 @@
 package com.microservices.demo.twitter.to.kafka.service.transformer;
 
 import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.metrics.PipelineStageTimers;
+import com.microservices.demo.twitter.to.kafka.service.keyword.KeywordTagger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 import twitter4j.Status;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class TwitterStatusToAvroTransformer {
 
+    private final TwitterAvroModelPool twitterAvroModelPool;
+
+    private final KeywordTagger keywordTagger;
+
+    private final Timer transformTimer;
+
+    public TwitterStatusToAvroTransformer(TwitterAvroModelPool modelPool,
+                                          KeywordTagger tagger,
+                                          MeterRegistry meterRegistry) {
+        this.twitterAvroModelPool = modelPool;
+        this.keywordTagger = tagger;
+        this.transformTimer = PipelineStageTimers.stageTimer(meterRegistry, "transform",
+                "Time to build the avro model of a tweet");
+    }
+
     public TwitterAvroModel getTwitterAvroModelFromStatus(Status status) {
-        return TwitterAvroModel
-                .newBuilder()
-                .setId(status.getId())
-                .setUserId(status.getUser().getId())
-                .setText(status.getText())
-                .setCreatedAt(status.getCreatedAt().getTime())
-                .build();
+        return getTwitterAvroModel(status.getId(), status.getUser().getId(), status.getText(),
+                status.getCreatedAt().getTime());
+    }
+
+    public TwitterAvroModel getTwitterAvroModel(long id, long userId, String text, long createdAt) {
+        long startNanos = System.nanoTime();
+        TwitterAvroModel twitterAvroModel = twitterAvroModelPool.isEnabled() ?
+                fillTwitterAvroModel(twitterAvroModelPool.acquire(), id, userId, text, createdAt) :
+                TwitterAvroModel
+                        .newBuilder()
+                        .setId(id)
+                        .setUserId(userId)
+                        .setText(text)
+                        .setCreatedAt(createdAt)
+                        .setKeywords(keywords(text, new ArrayList<>(2)))
+                        .build();
+        transformTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return twitterAvroModel;
+    }
+
+    private TwitterAvroModel fillTwitterAvroModel(TwitterAvroModel twitterAvroModel, long id, long userId,
+                                                  String text, long createdAt) {
+        twitterAvroModel.setId(id);
+        twitterAvroModel.setUserId(userId);
+        twitterAvroModel.setText(text);
+        twitterAvroModel.setCreatedAt(createdAt);
+        List<String> keywords = twitterAvroModel.getKeywords();
+        if (keywords == null) {
+            twitterAvroModel.setKeywords(keywords(text, new ArrayList<>(2)));
+        } else {
+            keywords.clear();
+            keywords(text, keywords);
+        }
+        return twitterAvroModel;
+    }
+
+    private List<String> keywords(String text, List<String> keywords) {
+        keywordTagger.tag(text, keywords);
+        return keywords;
     }
 }
@@ -0,0 +1,49 @@
+package com.microservices.demo.twitter.to.kafka.service.capture;
+
+import com.microservices.demo.kafka.avro.compact.TokenDictionary;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CapturedTweetTest {
+
+    private final TokenDictionary dictionary = TokenDictionary.load(1);
+
+    @Test
+    public void roundTripsArrivalTimeAndTweet() throws Exception {
+        TwitterAvroModel twitterAvroModel = TwitterAvroModel.newBuilder()
+                .setId(42L)
+                .setUserId(7L)
+                .setText("Java and kafka streams at  unknownword speed")
+                .setCreatedAt(1_600_000_000_000L)
+                .setKeywords(new ArrayList<>(List.of("Java", "Kafka")))
+                .build();
+
+        ByteBuffer payload = new CapturedTweet(1_600_000_000_123_456L, twitterAvroModel).encode(dictionary);
+        CapturedTweet decoded = CapturedTweet.decode(payload);
+
+        assertThat(decoded.getArrivalMicros()).isEqualTo(1_600_000_000_123_456L);
+        assertThat(decoded.getTwitterAvroModel()).isEqualTo(twitterAvroModel);
+        assertThat(payload.remaining()).isEqualTo(payload.capacity());
+    }
+
+    @Test
+    public void roundTripsTweetWithoutText() throws Exception {
+        TwitterAvroModel twitterAvroModel = TwitterAvroModel.newBuilder()
+                .setId(1L)
+                .setUserId(2L)
+                .setText(null)
+                .setCreatedAt(null)
+                .setKeywords(new ArrayList<>())
+                .build();
+
+        CapturedTweet decoded = CapturedTweet.decode(new CapturedTweet(0L, twitterAvroModel).encode(dictionary));
+
+        assertThat(decoded.getTwitterAvroModel()).isEqualTo(twitterAvroModel);
+    }
+}
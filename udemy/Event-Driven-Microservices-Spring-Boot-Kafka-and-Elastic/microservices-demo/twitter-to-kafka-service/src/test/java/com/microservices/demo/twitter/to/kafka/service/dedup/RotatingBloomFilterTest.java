@@ -0,0 +1,62 @@
+package com.microservices.demo.twitter.to.kafka.service.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RotatingBloomFilterTest {
+
+    private static final long WINDOW_MS = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final RotatingBloomFilter rotatingBloomFilter =
+            new RotatingBloomFilter(10_000, 0.001, WINDOW_MS, clock::get);
+
+    @Test
+    public void reportsIdsAddedWithinTheWindow() {
+        assertThat(rotatingBloomFilter.putIfAbsent(42L)).isFalse();
+        assertThat(rotatingBloomFilter.putIfAbsent(42L)).isTrue();
+
+        clock.set(WINDOW_MS);
+
+        assertThat(rotatingBloomFilter.putIfAbsent(42L)).isTrue();
+    }
+
+    @Test
+    public void forgetsIdsAfterTwoWindows() {
+        rotatingBloomFilter.putIfAbsent(42L);
+
+        clock.set(WINDOW_MS);
+        rotatingBloomFilter.putIfAbsent(1L);
+        clock.set(2 * WINDOW_MS);
+
+        assertThat(rotatingBloomFilter.putIfAbsent(42L)).isFalse();
+    }
+
+    @Test
+    public void forgetsIdsAfterAnIdlePeriod() {
+        rotatingBloomFilter.putIfAbsent(42L);
+
+        clock.set(5 * WINDOW_MS);
+
+        assertThat(rotatingBloomFilter.putIfAbsent(42L)).isFalse();
+    }
+
+    @Test
+    public void keepsFalsePositivesNearTheConfiguredRate() {
+        for (long id = 0; id < 5_000; id++) {
+            rotatingBloomFilter.putIfAbsent(id);
+        }
+        int falsePositives = 0;
+        for (long id = 1_000_000; id < 1_005_000; id++) {
+            if (rotatingBloomFilter.putIfAbsent(id)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(5_000 / 100);
+    }
+}
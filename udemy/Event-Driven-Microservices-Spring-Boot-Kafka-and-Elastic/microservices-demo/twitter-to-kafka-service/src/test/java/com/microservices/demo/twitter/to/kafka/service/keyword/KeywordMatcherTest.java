@@ -0,0 +1,41 @@
+package com.microservices.demo.twitter.to.kafka.service.keyword;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeywordMatcherTest {
+
+    @Test
+    public void matchesKeywordsIgnoringCaseInOrderOfFirstOccurrence() {
+        KeywordMatcher keywordMatcher = new KeywordMatcher(List.of("Java", "Spring Boot", "Kafka", "java"), true);
+
+        assertThat(match(keywordMatcher, "#kafka with SPRING BOOT and java, more java"))
+                .containsExactly("Kafka", "Spring Boot", "Java");
+        assertThat(keywordMatcher.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void matchesWholeWordsOnlyWhenConfigured() {
+        List<String> keywords = List.of("Java", "Script");
+
+        assertThat(match(new KeywordMatcher(keywords, true), "JavaScript")).isEmpty();
+        assertThat(match(new KeywordMatcher(keywords, false), "JavaScript")).containsExactly("Java", "Script");
+    }
+
+    @Test
+    public void reportsKeywordsEndingAtTheSamePosition() {
+        KeywordMatcher keywordMatcher = new KeywordMatcher(List.of("he", "she", "his", "hers"), false);
+
+        assertThat(match(keywordMatcher, "ushers")).containsExactly("she", "he", "hers");
+    }
+
+    private List<String> match(KeywordMatcher keywordMatcher, String text) {
+        List<String> matches = new ArrayList<>();
+        keywordMatcher.match(text, matches);
+        return matches;
+    }
+}
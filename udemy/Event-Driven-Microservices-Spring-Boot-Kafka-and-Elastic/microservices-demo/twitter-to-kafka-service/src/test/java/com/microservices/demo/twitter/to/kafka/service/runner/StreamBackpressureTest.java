@@ -0,0 +1,127 @@
+package com.microservices.demo.twitter.to.kafka.service.runner;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.metrics.ProducerBufferMonitor;
+import com.microservices.demo.twitter.to.kafka.service.handoff.HandOffBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamBackpressureTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StubHandOffBuffer handOffBuffer = new StubHandOffBuffer(100);
+
+    private final StubStreamRunner streamRunner = new StubStreamRunner();
+
+    private final StreamBackpressure streamBackpressure = new StreamBackpressure(configData(), streamRunner,
+            new ProducerBufferMonitor(new KafkaProducerConfigData(), null, null, meterRegistry), handOffBuffer,
+            meterRegistry);
+
+    @Test
+    public void pausesWhenTheHandOffBufferReachesTheHighWatermark() {
+        handOffBuffer.depth = 74;
+        streamBackpressure.check();
+
+        assertThat(streamRunner.paused).isFalse();
+
+        handOffBuffer.depth = 75;
+        streamBackpressure.check();
+
+        assertThat(streamRunner.paused).isTrue();
+        assertThat(meterRegistry.get("twitter.stream.backpressure.pauses").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("twitter.stream.backpressure.paused").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void resumesOnceTheHandOffBufferDrainedToTheLowWatermark() {
+        handOffBuffer.depth = 90;
+        streamBackpressure.check();
+        handOffBuffer.depth = 60;
+        streamBackpressure.check();
+
+        assertThat(streamRunner.paused).isTrue();
+
+        handOffBuffer.depth = 50;
+        streamBackpressure.check();
+
+        assertThat(streamRunner.paused).isFalse();
+        assertThat(streamRunner.resumes).isEqualTo(1);
+    }
+
+    private TwitterToKafkaServiceConfigData configData() {
+        TwitterToKafkaServiceConfigData configData = new TwitterToKafkaServiceConfigData();
+        configData.setBackpressureHighWatermark(0.75);
+        configData.setBackpressureLowWatermark(0.5);
+        configData.setBackpressureCheckIntervalMs(100L);
+        return configData;
+    }
+
+    private static final class StubStreamRunner implements StreamRunner {
+
+        private boolean paused;
+
+        private int resumes;
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void pause() {
+            paused = true;
+        }
+
+        @Override
+        public void resume() {
+            paused = false;
+            resumes++;
+        }
+    }
+
+    private static final class StubHandOffBuffer implements HandOffBuffer<TwitterAvroModel> {
+
+        private final int capacity;
+
+        private int depth;
+
+        private StubHandOffBuffer(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(TwitterAvroModel element) {
+            return false;
+        }
+
+        @Override
+        public int queueDepth() {
+            return depth;
+        }
+
+        @Override
+        public int capacity() {
+            return capacity;
+        }
+
+        @Override
+        public long droppedCount() {
+            return 0;
+        }
+
+        @Override
+        public void holdUntil(CompletableFuture<?> readiness) {
+        }
+
+        @Override
+        public int drainAndStop(long timeoutMs) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.microservices.demo.twitter.to.kafka.service.runner;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WatermarkGateTest {
+
+    private final WatermarkGate watermarkGate = new WatermarkGate(0.8, 0.5);
+
+    @Test
+    public void closesAtTheHighWatermark() {
+        assertThat(watermarkGate.update(0.79)).isFalse();
+        assertThat(watermarkGate.isClosed()).isFalse();
+
+        assertThat(watermarkGate.update(0.8)).isTrue();
+        assertThat(watermarkGate.isClosed()).isTrue();
+    }
+
+    @Test
+    public void staysClosedBetweenTheWatermarks() {
+        watermarkGate.update(0.9);
+
+        assertThat(watermarkGate.update(0.6)).isFalse();
+        assertThat(watermarkGate.update(0.85)).isFalse();
+        assertThat(watermarkGate.isClosed()).isTrue();
+    }
+
+    @Test
+    public void opensAtTheLowWatermark() {
+        watermarkGate.update(0.9);
+
+        assertThat(watermarkGate.update(0.5)).isTrue();
+        assertThat(watermarkGate.isClosed()).isFalse();
+        assertThat(watermarkGate.update(0.7)).isFalse();
+    }
+
+    @Test
+    public void rejectsLowWatermarkAboveHighWatermark() {
+        assertThatThrownBy(() -> new WatermarkGate(0.5, 0.8)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
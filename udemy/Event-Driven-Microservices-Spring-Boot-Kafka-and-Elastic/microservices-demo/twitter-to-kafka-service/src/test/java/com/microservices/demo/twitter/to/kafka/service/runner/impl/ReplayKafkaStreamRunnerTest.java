@@ -0,0 +1,86 @@
+package com.microservices.demo.twitter.to.kafka.service.runner.impl;
+
+import com.microservices.demo.config.TwitterToKafkaServiceConfigData;
+import com.microservices.demo.kafka.avro.compact.TokenDictionary;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import com.microservices.demo.kafka.producer.segment.SegmentLog;
+import com.microservices.demo.twitter.to.kafka.service.capture.CapturedTweet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplayKafkaStreamRunnerTest {
+
+    private static final int SEGMENT_SIZE_BYTES = 64 * 1024;
+
+    private static final long START_MICROS = 1_600_000_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void replaysCapturedTweetsInOrderWithScaledGaps() throws Exception {
+        SegmentLog captureLog = new SegmentLog(directory, SEGMENT_SIZE_BYTES, 2);
+        TokenDictionary dictionary = TokenDictionary.load(1);
+        long[] arrivalOffsetsMs = {0, 300, 900, 1200};
+        for (int i = 0; i < arrivalOffsetsMs.length; i++) {
+            captureLog.append(new CapturedTweet(START_MICROS + TimeUnit.MILLISECONDS.toMicros(arrivalOffsetsMs[i]),
+                    tweet(i)).encode(dictionary));
+        }
+        captureLog.close();
+
+        List<Long> ids = new CopyOnWriteArrayList<>();
+        List<Long> replayNanos = new CopyOnWriteArrayList<>();
+        CountDownLatch replayed = new CountDownLatch(arrivalOffsetsMs.length);
+        ReplayKafkaStreamRunner replayRunner = new ReplayKafkaStreamRunner(configData(3.0), null, null) {
+            @Override
+            void onCapturedTweet(CapturedTweet capturedTweet) {
+                replayNanos.add(System.nanoTime());
+                ids.add(capturedTweet.getTwitterAvroModel().getId());
+                replayed.countDown();
+            }
+        };
+
+        replayRunner.start();
+        try {
+            assertThat(replayed.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            replayRunner.shutdown();
+        }
+
+        assertThat(ids).containsExactly(0L, 1L, 2L, 3L);
+        for (int i = 1; i < arrivalOffsetsMs.length; i++) {
+            long expectedGapMs = (arrivalOffsetsMs[i] - arrivalOffsetsMs[i - 1]) / 3;
+            long gapMs = TimeUnit.NANOSECONDS.toMillis(replayNanos.get(i) - replayNanos.get(i - 1));
+            assertThat(gapMs).as("gap before tweet %d", i).isBetween(expectedGapMs - 20, expectedGapMs + 80);
+        }
+    }
+
+    private TwitterToKafkaServiceConfigData configData(double replaySpeed) {
+        TwitterToKafkaServiceConfigData configData = new TwitterToKafkaServiceConfigData();
+        configData.setCaptureDirectory(directory.toString());
+        configData.setCaptureSegmentSizeBytes(SEGMENT_SIZE_BYTES);
+        configData.setCaptureMaxSegments(2);
+        configData.setReplaySpeed(replaySpeed);
+        configData.setReplayMaxGapMs(10_000L);
+        return configData;
+    }
+
+    private TwitterAvroModel tweet(long id) {
+        return TwitterAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(100L + id)
+                .setText("Replayed kafka tweet " + id)
+                .setCreatedAt(START_MICROS / 1000)
+                .setKeywords(new ArrayList<>(List.of("Kafka")))
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Measures time to first acknowledged record of twitter-to-kafka-service over several cold starts.
+# Each run uses mock tweets and exits as soon as the first record is acknowledged by kafka, so kafka, schema registry
+# and the config server have to be running.
+#
+# Usage: ./startup-benchmark.sh [runs] [additional profiles, e.g. fast_start]
+# JAVA_OPTS is passed to the JVM, e.g. JAVA_OPTS="-XX:TieredStopAtLevel=1 -Xshare:auto -XX:SharedArchiveFile=app.jsa"
+set -euo pipefail
+
+RUNS=${1:-5}
+PROFILES=${2:-}
+JAR=${JAR:-$(dirname "$0")/target/twitter-to-kafka-service-0.0.1-SNAPSHOT.jar}
+
+total=0
+for run in $(seq 1 "$RUNS"); do
+  # shellcheck disable=SC2086
+  result=$(java ${JAVA_OPTS:-} -jar "$JAR" \
+      --spring.profiles.include="$PROFILES" \
+      --twitter-to-kafka-service.enable-mock-tweets=true \
+      --twitter-to-kafka-service.exit-after-first-record=true 2>&1 |
+      sed -n 's/.*Time to first record: \([0-9]*\) ms.*/\1/p' | head -1)
+  if [ -z "$result" ]; then
+    echo "Run $run: no record was acknowledged" >&2
+    exit 1
+  fi
+  echo "Run $run: $result ms"
+  total=$((total + result))
+done
+echo "Average time to first record over $RUNS run(s): $((total / RUNS)) ms"